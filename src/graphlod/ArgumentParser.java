@@ -27,8 +27,12 @@ public class ArgumentParser {
     private final int minImportantSubgraphSize;
     private final int importantDegreeCount;
     private final int threadcount;
+    private final int ingestThreads;
+    private final boolean mappedReader;
     private final boolean debugMode;
     private final String output;
+    private final String snapshotDir;
+    private final String outOfCoreDir;
     private final int bigComponentSize;
     private String name;
     private final List<String> dataset;
@@ -48,8 +52,12 @@ public class ArgumentParser {
         parser.addArgument("--minImportantSubgraphSize").type(Integer.class).action(Arguments.store()).setDefault(1);
         parser.addArgument("--importantDegreeCount").type(Integer.class).action(Arguments.store()).setDefault(5);
         parser.addArgument("--threadcount").type(Integer.class).action(Arguments.store()).setDefault(4);
+        parser.addArgument("--ingestThreads").type(Integer.class).action(Arguments.store()).setDefault(1);
+        parser.addArgument("--mappedReader").action(Arguments.storeTrue());
         parser.addArgument("--debug").action(Arguments.storeTrue());
         parser.addArgument("--output").type(String.class).setDefault("");
+        parser.addArgument("--snapshotDir").type(String.class).setDefault("");
+        parser.addArgument("--outOfCoreDir").type(String.class).setDefault("");
         parser.addArgument("--exportJson").action(Arguments.storeTrue());
         parser.addArgument("--runGrami").action(Arguments.storeTrue());
         parser.addArgument("--runGspan").action(Arguments.storeTrue());
@@ -87,8 +95,12 @@ public class ArgumentParser {
         minImportantSubgraphSize = result.getInt("minImportantSubgraphSize");
         importantDegreeCount = result.getInt("importantDegreeCount");
         threadcount = result.getInt("threadcount");
+        ingestThreads = result.getInt("ingestThreads");
+        mappedReader = result.getBoolean("mappedReader");
         debugMode = result.getBoolean("debug");
         output = result.getString("output");
+        snapshotDir = result.getString("snapshotDir");
+        outOfCoreDir = result.getString("outOfCoreDir");
         bigComponentSize = result.getInt("maxSize");
         runGrami = result.getBoolean("runGrami");
         runGspan = result.getBoolean("runGspan");
@@ -103,8 +115,12 @@ public class ArgumentParser {
         logger.info("min important subgraph size: " + minImportantSubgraphSize);
         logger.info("number of important degrees: " + importantDegreeCount);
         logger.info("threadcount: " + threadcount);
+        logger.info("ingest threads: " + ingestThreads);
+        logger.info("mapped reader: " + mappedReader);
         logger.info("bigComponentSize: " + bigComponentSize);
         logger.info("output: " + output);
+        logger.info("snapshot directory: " + snapshotDir);
+        logger.info("out of core directory: " + outOfCoreDir);
     }
 
     public boolean isSkipChromatic() {
@@ -155,6 +171,14 @@ public class ArgumentParser {
         return threadcount;
     }
 
+    public int getIngestThreads() {
+        return ingestThreads;
+    }
+
+    public boolean isMappedReader() {
+        return mappedReader;
+    }
+
     public boolean isDebugMode() {
         return debugMode;
     }
@@ -163,6 +187,20 @@ public class ArgumentParser {
         return output;
     }
 
+    /**
+     * Directory for dataset snapshots or null if the dataset should always be parsed.
+     */
+    public File getSnapshotDir() {
+        return snapshotDir.isEmpty() ? null : new File(snapshotDir);
+    }
+
+    /**
+     * Directory for the edges of a graph read out of core or null if the graph should be read into memory.
+     */
+    public File getOutOfCoreDir() {
+        return outOfCoreDir.isEmpty() ? null : new File(outOfCoreDir);
+    }
+
     public Integer getBigComponentSize() {
         return bigComponentSize;
     }
@@ -4,7 +4,6 @@ import graphlod.algorithms.GraphFeatures;
 import graphlod.dataset.Dataset;
 import graphlod.graph.Edge;
 import graphlod.output.JsonOutput;
-import org.jgraph.graph.DefaultEdge;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.SimpleGraph;
 import org.slf4j.Logger;
@@ -21,7 +20,7 @@ public class EdgeSimilarity {
     public HashMap<Integer, HashMap<Edge, Integer>> differenceToFirstElement = new HashMap<>();
 
     public EdgeSimilarity(ArgumentParser arguments) {
-        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces()));
+        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces(), arguments.getIngestThreads(), arguments.isMappedReader(), arguments.getSnapshotDir()));
     }
 
     public EdgeSimilarity(String name, Dataset dataset) {
@@ -33,7 +32,7 @@ public class EdgeSimilarity {
         if (graphFeatures.isConnected()) {
             connectedGraphs.add(graphFeatures);
         } else {
-            connectedGraphs = graphFeatures.createSubGraphFeatures(graphFeatures.getConnectedSets());
+            connectedGraphs = graphFeatures.createSubGraphFeatures(graphFeatures.getConnectedComponents());
         }
 
         for (GraphFeatures connectedComponent : connectedGraphs) {
@@ -54,13 +53,13 @@ public class EdgeSimilarity {
                 // repeat for all ?
                 // TODO find "centroid" element
 
-                DirectedGraph<String, DefaultEdge> graph = connectedComponent.getGraph();
-                DirectedGraph<String, DefaultEdge> graphFromBag = similarityBag.get(0).getGraph();
+                DirectedGraph<String, graphlod.dataset.Edge> graph = connectedComponent.getGraph();
+                DirectedGraph<String, graphlod.dataset.Edge> graphFromBag = similarityBag.get(0).getGraph();
 
                 // 2. check for vertices
                 HashMap<Edge, Integer> edges1 = new HashMap<>();
                 HashMap<Edge, Integer> edges2 = new HashMap<>();
-                for (DefaultEdge edge : graph.edgeSet()) {
+                for (graphlod.dataset.Edge edge : graph.edgeSet()) {
                     Edge edgeClasses = new Edge(graphLod.dataset.getClassForSubject(edge.getSource().toString()), graphLod.dataset.getClassForSubject(edge.getTarget().toString()));
                     Integer count = 1;
                     if (edges1.containsKey(edgeClasses)) {
@@ -68,7 +67,7 @@ public class EdgeSimilarity {
                     }
                     edges1.put(edgeClasses, count);
                 }
-                for (DefaultEdge edge : graphFromBag.edgeSet()) {
+                for (graphlod.dataset.Edge edge : graphFromBag.edgeSet()) {
                     Edge edgeClasses = new Edge(graphLod.dataset.getClassForSubject(edge.getSource().toString()), graphLod.dataset.getClassForSubject(edge.getTarget().toString()));
                     Integer count = 1;
                     if (edges2.containsKey(edgeClasses)) {
@@ -125,7 +124,7 @@ public class EdgeSimilarity {
         logger.info(similarityBags.size() + " similar edge bags");
         for (List<GraphFeatures> similarityBag : similarityBags) {
             Set<Edge> edges = new HashSet<>();
-            for (DefaultEdge edge : similarityBag.get(0).getSimpleGraph().edgeSet()) {
+            for (graphlod.dataset.Edge edge : similarityBag.get(0).getSimpleGraph().edgeSet()) {
                 edges.add(new Edge(graphLod.dataset.getClassForSubject(edge.getSource().toString()), graphLod.dataset.getClassForSubject(edge.getTarget().toString())));
             }
 
@@ -137,21 +136,18 @@ public class EdgeSimilarity {
             }
             this.similarityLists.add(jsonList);
 
-            SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
+            SimpleGraph<String, graphlod.dataset.Edge> simpleGraph = new SimpleGraph<>(graphlod.dataset.Edge.class);
             Set<Edge> edges1 = new HashSet<>();
             Integer vertexCount = 0;
             Integer vertexCount1 = 1;
             HashMap<String, String> classes = new HashMap();
-            for (DefaultEdge edge : similarityBag.get(0).getGraph().edgeSet()) {
+            for (graphlod.dataset.Edge edge : similarityBag.get(0).getGraph().edgeSet()) {
                 Edge edgeClasses = new Edge(graphLod.dataset.getClassForSubject(edge.getSource().toString()), graphLod.dataset.getClassForSubject(edge.getTarget().toString()));
                 if (!edges1.contains(edgeClasses)) {
                     edges1.add(edgeClasses);
                     simpleGraph.addVertex(vertexCount.toString());
                     simpleGraph.addVertex(vertexCount1.toString());
-                    DefaultEdge e = new DefaultEdge("");
-                    e.setSource(vertexCount.toString());
-                    e.setTarget(vertexCount1.toString());
-                    simpleGraph.addEdge(vertexCount.toString(), vertexCount1.toString().toString(), e);
+                    simpleGraph.addEdge(vertexCount.toString(), vertexCount1.toString(), new graphlod.dataset.Edge());
                     System.out.print(edgeClasses);
                     classes.put(vertexCount.toString(), edgeClasses.sourceClass);
                     classes.put(vertexCount1.toString(), edgeClasses.targetClass);
@@ -6,7 +6,7 @@ import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.BiMap;
@@ -74,7 +74,7 @@ public class GramiAnalysis {
     private List<Graph.Edge> createEdges(Dataset dataset, BiMap<String, Integer> nodeMap) {
         List<Graph.Edge> edges;
         edges = Lists.newArrayList();
-        for (DefaultEdge edge : dataset.getGraph().edgeSet()) {
+        for (Edge edge : dataset.getGraph().edgeSet()) {
             String source = edge.getSource().toString();
             String target = edge.getTarget().toString();
             double label = 1;
@@ -12,16 +12,22 @@ import graphlod.algorithms.PermutationClassIsomorphismInspector;
 import graphlod.dataset.Dataset;
 import graphlod.graph.BFSMinimizingOrderedIterator;
 import graphlod.graph.BFSOrderedIterator;
+import graphlod.graph.BiconnectedComponents;
 import graphlod.graph.Degree;
+import graphlod.graph.DegreeHistogram;
+import graphlod.graph.DegreeSequence;
+import graphlod.graph.DiameterBounds;
+import graphlod.graph.DiskCsrGraph;
 import graphlod.output.*;
 import graphlod.output.renderer.GraphRenderer;
 import graphlod.utils.GraphUtils;
 import graphlod.utils.MapUtil;
 import org.apache.commons.lang3.StringUtils;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graph;
 import org.jgrapht.Graphs;
+import org.jgrapht.UndirectedGraph;
 import org.jgrapht.alg.StrongConnectivityInspector;
 import org.jgrapht.experimental.isomorphism.GraphIsomorphismInspector;
 import org.jgrapht.experimental.isomorphism.IsomorphismRelation;
@@ -60,7 +66,9 @@ public class GraphLOD {
 
     private static Logger logger = LoggerFactory.getLogger(GraphLOD.class);
 
-    public static final int MAX_SIZE_FOR_DIAMETER = 50;
+    public static final int MAX_SIZE_FOR_DIAMETER = 10000;
+    public static final int MAX_DIAMETER_SWEEPS = 100;
+    public static final int POWER_LAW_MIN_DEGREE = 6;
     public static final int MAX_SIZE_FOR_CS_PRINT = 500000000;
     public static final int MAX_SIZE_FOR_PROLOD = 5000;
     public static final int MAX_SIZE_FOR_ISO = 1000;
@@ -78,7 +86,6 @@ public class GraphLOD {
     public GraphFeatures graphFeatures;
 
     public List<GraphFeatures> connectedGraphFeatures = new ArrayList<>();
-    public List<GraphFeatures> stronglyConnectedGraphs = new ArrayList<>();
 
     public boolean giantComponent = false;
 
@@ -87,16 +94,16 @@ public class GraphLOD {
     public int gcEdges = 0;
     public int gcNodes = 0;
 
-    private List<GraphFeatures> bipartiteGraphs = new ArrayList<>();
+    public List<GraphFeatures> bipartiteGraphs = new ArrayList<>();
 
     public List<String> htmlFiles = new ArrayList<>();
     public String output;
 
-    public List<SimpleGraph<String, DefaultEdge>> connectedGraphs = new ArrayList<>();
+    public List<SimpleGraph<String, Edge>> connectedGraphs = new ArrayList<>();
     public List<String> connectedGraphsTypes = new ArrayList<>();
 
     public List<List<Integer>> isomorphicGraphs = new ArrayList<>();
-    public List<SimpleGraph<String, DefaultEdge>> connectedGraphsGC = new ArrayList<>();
+    public List<SimpleGraph<String, Edge>> connectedGraphsGC = new ArrayList<>();
     public List<String> connectedGraphsGCTypes = new ArrayList<>();
     private List<List<Integer>> isomorphicGraphsGC = new ArrayList<>();
     public List<String> isomorphicGraphsGCTypes = new ArrayList<>();
@@ -175,7 +182,7 @@ public class GraphLOD {
             }
         } else {
             if (analyzeAlso) {
-                this.graphCsvOutput = new GraphCsvOutput(name, MAX_SIZE_FOR_DIAMETER);
+                this.graphCsvOutput = new GraphCsvOutput(name);
                 this.vertexCsvOutput = new VertexCsvOutput(name);
 
                 if (!this.output.isEmpty()) {
@@ -221,7 +228,7 @@ public class GraphLOD {
             JsonOutput jsonOutput = new JsonOutput(this.dataset);
             jsonOutput.write(this.output);
         }
-        GraphFeatures graphFeatures = new GraphFeatures("main_graph", dataset.getGraph(), dataset.getSimpleGraph());
+        GraphFeatures graphFeatures = new GraphFeatures("main_graph", dataset.getGraph(), dataset.getSimpleGraph(), dataset.getCsrGraph());
 
         logger.info("Processing the dataset took " + sw + " to execute.");
         return graphFeatures;
@@ -243,12 +250,12 @@ public class GraphLOD {
             logger.info("Connectivity: no");
         }
 
-        List<Set<String>> sci_sets = graphFeatures.getStronglyConnectedSets();
-        logger.info("Strongly connected components: " + formatInt(sci_sets.size()));
-        printComponentSizeAndCount(sci_sets);
-        stronglyConnectedGraphs = graphFeatures.createSubGraphFeatures(sci_sets);
-        for (GraphFeatures subGraph : stronglyConnectedGraphs) {
-            this.stronglyconnectedGraphSizes.add(subGraph.getVertexCount());
+        int[] stronglyConnectedSizes = GraphFeatures.getComponentSizes(graphFeatures.getStronglyConnectedComponents());
+        logger.info("Strongly connected components: " + formatInt(stronglyConnectedSizes.length));
+        printComponentSizeAndCount(stronglyConnectedSizes);
+        Arrays.sort(stronglyConnectedSizes);
+        for (int size : stronglyConnectedSizes) {
+            this.stronglyconnectedGraphSizes.add(size);
         }
         logger.debug("Getting the connectivity took " + sw + " to execute.");
 
@@ -321,14 +328,11 @@ public class GraphLOD {
 
                 */
 
-                boolean isBipartiteGraph = false;
-                /* TODO Takes too long for some graphs and results in OutOfMemoryError. Deal with that first.
                 boolean isBipartiteGraph = subGraph.isBipartite();
                 if (isBipartiteGraph) {
-                    System.out.printf("\tBipartite graph: %s\n", isBipartiteGraph);
+                    logger.info("\tBipartite graph: {}", isBipartiteGraph);
                     bipartiteGraphs.add(subGraph);
                 }
-                */
 
                 /*
                 if (subGraph.getVertexCount() < MAX_SIZE_FOR_DIAMETER) {
@@ -411,16 +415,25 @@ public class GraphLOD {
         logger.info("\tMax indegree: " + graphFeatures.getMaxIndegree());
         logger.info("\tMin indegree: " + graphFeatures.getMinIndegree());
 
-        this.nodeDegreeDistribution = new JSONObject(graphFeatures.getDegreeDistribution());
+        DegreeHistogram edgeCountHistogram = graphFeatures.getEdgeCountHistogram();
+        Map<Integer, Integer> degreeCounts = new HashMap<>();
+        for (int edges = 0; edges <= edgeCountHistogram.getMaxDegree(); edges++) {
+            if (edgeCountHistogram.getCount(edges) > 0) {
+                degreeCounts.put(edges, edgeCountHistogram.getCount(edges));
+            }
+        }
+        this.nodeDegreeDistribution = new JSONObject(degreeCounts);
         logger.info("\tNode degree distribution: {}", this.nodeDegreeDistribution);
+        logger.debug("\tNode degree distribution (log bins): {}", edgeCountHistogram.getLogBins(2));
+        logger.info("\tPower law exponent (degree >= {}): {}", POWER_LAW_MIN_DEGREE,
+                edgeCountHistogram.estimatePowerLawExponent(POWER_LAW_MIN_DEGREE));
 
-        List<Integer> outdegrees = graphFeatures.getOutdegrees();
-        logger.info("\tAverage outdegree: {}", graphlod.utils.CollectionUtils.average(outdegrees));
-        logger.info("\tMax outdegree: " + graphlod.utils.CollectionUtils.max(outdegrees));
-        logger.info("\tMin outdegree: " + graphlod.utils.CollectionUtils.min(outdegrees));
+        DegreeSequence outdegrees = graphFeatures.getOutdegreeSequence();
+        logger.info("\tAverage outdegree: {}", outdegrees.getAverage());
+        logger.info("\tMax outdegree: " + outdegrees.getMax());
+        logger.info("\tMin outdegree: " + outdegrees.getMin());
 
-        ArrayList<Integer> edgeCounts = graphFeatures.getEdgeCounts();
-        this.averageLinks = graphlod.utils.CollectionUtils.average(edgeCounts);
+        this.averageLinks = graphFeatures.getEdgeCountSequence().getAverage();
         logger.info("\tAverage links: {}", averageLinks);
 
         if (!skipChromaticNumber) {
@@ -465,7 +478,7 @@ public class GraphLOD {
         return connectedGraphFeatures;
     }
 
-    public String getMinimizedPatterns(SimpleGraph<String, DefaultEdge> g) {
+    public String getMinimizedPatterns(UndirectedGraph<String, Edge> g) {
         String pattern = "";
         int highestDegree = 0;
         List<String> vertices = new ArrayList<>();
@@ -473,7 +486,7 @@ public class GraphLOD {
         HashMap<String, String> classes = new HashMap<>();
         for (String vertex : g.vertexSet()) {
             allClasses.put(vertex, this.dataset.getClassForSubject(vertex));
-            Set<DefaultEdge> edges = g.edgesOf(vertex);
+            Set<Edge> edges = g.edgesOf(vertex);
 
             Integer edgeCount = g.degreeOf(vertex);
             if (edgeCount > highestDegree) {
@@ -531,7 +544,7 @@ public class GraphLOD {
         boolean giantComponent = false;
         for (GraphFeatures connectedSet : this.connectedGraphFeatures) {
             boolean added = false;
-            DirectedGraph<String, DefaultEdge> graph = connectedSet.getGraph();
+            DirectedGraph<String, Edge> graph = connectedSet.getGraph();
 
             if (connectedSet.getVertexCount() < this.bigComponentSize) {
                 if (this.connectedGraphFeatures.size() == 1) {
@@ -718,7 +731,7 @@ public class GraphLOD {
         }
     }
 
-    private void getCompleteGraphs(DirectedGraph<String, DefaultEdge> graph, boolean giantComponent) {
+    private void getCompleteGraphs(DirectedGraph<String, Edge> graph, boolean giantComponent) {
         // TODO if not giant component...
         /*
         BronKerboschCliqueFinder cliqueFinder = new BronKerboschCliqueFinder<>(graph);
@@ -745,17 +758,17 @@ public class GraphLOD {
         */
     }
 
-    private void getStronglyConnectedComponentsFromGC(DirectedGraph<String, DefaultEdge> graph, boolean giantComponent) {
-        StrongConnectivityInspector<String, DefaultEdge> sci = new StrongConnectivityInspector<>(graph);
-        List<DirectedSubgraph<String, DefaultEdge>> stronglyConnectedComponents = sci.stronglyConnectedSubgraphs();
-        for (DirectedSubgraph<String, DefaultEdge> subGraph : stronglyConnectedComponents) {
+    private void getStronglyConnectedComponentsFromGC(DirectedGraph<String, Edge> graph, boolean giantComponent) {
+        StrongConnectivityInspector<String, Edge> sci = new StrongConnectivityInspector<>(graph);
+        List<DirectedSubgraph<String, Edge>> stronglyConnectedComponents = sci.stronglyConnectedSubgraphs();
+        for (DirectedSubgraph<String, Edge> subGraph : stronglyConnectedComponents) {
             if (subGraph.vertexSet().size() >= 4) {
                 addPatterns(graph, subGraph, STRONGLY_CONNECTED, giantComponent);
             }
         }
     }
 
-    private void getSiameseStarsFromGC(DirectedGraph<String, DefaultEdge> graph, boolean giantComponent, List<Set<String>> verticesInStars) {
+    private void getSiameseStarsFromGC(DirectedGraph<String, Edge> graph, boolean giantComponent, List<Set<String>> verticesInStars) {
         List<String> verticesinSiameseStars = new ArrayList<>();
         if (this.numbersOnly) {
             for (Set<String> starVertices1 : verticesInStars) {
@@ -791,15 +804,15 @@ public class GraphLOD {
         for (ListIterator<String> iterator = this.connectedGraphsGCTypes.listIterator(); iterator.hasNext(); ) {
             String patternType = iterator.next();
             int index = this.connectedGraphsGCTypes.indexOf(patternType);
-            SimpleGraph<String, DefaultEdge> simpleGraph = this.connectedGraphsGC.get(index);
+            SimpleGraph<String, Edge> simpleGraph = this.connectedGraphsGC.get(index);
             if (patternType.equals(STAR)) {
                 boolean alsoInOtherStar = checkIfAnyVerticeInStarIsAlsoInAnotherStar(simpleGraph.vertexSet(), verticesinSiameseStars);
                 if (!alsoInOtherStar) continue;
                 for (Object v: simpleGraph.vertexSet()) {
                     if ((this.verticesInPatterns.get(v.toString()).size() > 1) && (!verticesinSiameseStars.contains(v.toString()))) {
-                        DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-                        SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-                        DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+                        DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+                        SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+                        DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
                         for (Integer id: this.verticesInPatterns.get(v.toString())) {
                             String secondPatternType = this.connectedGraphsGCTypes.get(id);
                             if (secondPatternType.equals(STAR)) {
@@ -879,7 +892,7 @@ public class GraphLOD {
     }
     */
 
-    private boolean checkDoublyLinkedPathsFromGC(DirectedGraph<String, DefaultEdge> graph, String v, Set<String> verticesInDoublyLinkedLists, boolean giantComponent) {
+    private boolean checkDoublyLinkedPathsFromGC(DirectedGraph<String, Edge> graph, String v, Set<String> verticesInDoublyLinkedLists, boolean giantComponent) {
         // Check if this is not the first vertex of a doubly linked list
         List<String> neighbourVertices = GraphUtils.getNeighboursOfV(graph, v);
         if (neighbourVertices.size() == 2) {
@@ -887,8 +900,8 @@ public class GraphLOD {
             boolean secondNeighbourVCouldBeStart = false;
             int i = 0;
             for (String neighbourV: neighbourVertices) {
-                Set<DefaultEdge> outgoingEdges = graph.getAllEdges(v, neighbourV);
-                Set<DefaultEdge> incomingEdges = graph.getAllEdges(neighbourV, v);
+                Set<Edge> outgoingEdges = graph.getAllEdges(v, neighbourV);
+                Set<Edge> incomingEdges = graph.getAllEdges(neighbourV, v);
                 if ((outgoingEdges.size() == 1) && (incomingEdges.size() == 1)) {
                     if (i == 0) {
                         firstNeighbourVCouldBeStart = true;
@@ -914,9 +927,9 @@ public class GraphLOD {
         }
 
         if (doublyLinkedList.size() >= 4) {
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
             String lastVertex = null;
             for (String vertex : doublyLinkedList) {
                 doublyLinkedPath.addVertex(vertex);
@@ -938,11 +951,11 @@ public class GraphLOD {
         return true;
     }
 
-    private List<String> checkVertexInLinkedList(DirectedGraph<String, DefaultEdge> graph, String v, List<String> visited) {
+    private List<String> checkVertexInLinkedList(DirectedGraph<String, Edge> graph, String v, List<String> visited) {
         visited.add(v);
-        Set<DefaultEdge> outgoing = graph.outgoingEdgesOf(v);
+        Set<Edge> outgoing = graph.outgoingEdgesOf(v);
         String nextVertex = null;
-        for (DefaultEdge outgoingEdge : outgoing) {
+        for (Edge outgoingEdge : outgoing) {
             // TODO for the first vertex there might be more options for the next vertex to consider
             // TODO also the last vertex can have more than 2 outgoing vertices!
             /*
@@ -954,8 +967,8 @@ public class GraphLOD {
             if (visited.contains(oppositeVertex1)) {
                  continue;
             }
-            Set<DefaultEdge> outgoingEdges = graph.getAllEdges(v, oppositeVertex1);
-            Set<DefaultEdge> incomingEdges = graph.getAllEdges(oppositeVertex1, v);
+            Set<Edge> outgoingEdges = graph.getAllEdges(v, oppositeVertex1);
+            Set<Edge> incomingEdges = graph.getAllEdges(oppositeVertex1, v);
             if ((outgoingEdges.size() == 1) && (incomingEdges.size() == 1)) {
                 nextVertex = oppositeVertex1;
                 break;
@@ -969,7 +982,7 @@ public class GraphLOD {
         return linkedList;
     }
 
-    private boolean checkVertexAsCentreOfWindmill(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesInWindmills, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfWindmill(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesInWindmills, boolean giantComponent) {
         List<String> neighbourVertices = Graphs.neighborListOf(graph, v_center);
 
         if (!giantComponent && ((neighbourVertices.size() + 1) < graph.vertexSet().size())) {
@@ -997,9 +1010,9 @@ public class GraphLOD {
 
             }
         }
-        DirectedGraph<String, DefaultEdge> windmillGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleWindmillGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> windmillGraph2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> windmillGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleWindmillGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> windmillGraph2 = new DefaultDirectedGraph<>(Edge.class);
         windmillGraph.addVertex(v_center);
         simpleWindmillGraph.addVertex(v_center);
         for (String vertex : neighbourVertices) {
@@ -1021,7 +1034,7 @@ public class GraphLOD {
         return true;
     }
 
-    private boolean checkVertexAsCentreOfWheel(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesinWheels, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfWheel(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesinWheels, boolean giantComponent) {
         List<String> neighbourVertices = Graphs.neighborListOf(graph, v_center);
         if (neighbourVertices.size() < 4) {
             return false;
@@ -1045,9 +1058,9 @@ public class GraphLOD {
                 }
             }
         }
-        DirectedGraph<String, DefaultEdge> windmillGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleWindmillGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> windmillGraph2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> windmillGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleWindmillGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> windmillGraph2 = new DefaultDirectedGraph<>(Edge.class);
         windmillGraph.addVertex(v_center);
         simpleWindmillGraph.addVertex(v_center);
         for (String vertex : neighbourVertices) {
@@ -1069,7 +1082,7 @@ public class GraphLOD {
         return true;
     }
 
-    private boolean checkVertexAsCentreOfMixedStar(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfMixedStar(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
         List<String> neighbourVertices = GraphUtils.getNeighboursOfV(graph, v_center);
         if (neighbourVertices.size() < 4) {
             return false;
@@ -1077,29 +1090,29 @@ public class GraphLOD {
         if (!giantComponent && ((neighbourVertices.size() + 1) < graph.vertexSet().size())) {
             return false;
         }
-        Set<DefaultEdge> surroundingEdges = graph.outgoingEdgesOf(v_center);
-        Set<DefaultEdge> sei = graph.incomingEdgesOf(v_center);
+        Set<Edge> surroundingEdges = graph.outgoingEdgesOf(v_center);
+        Set<Edge> sei = graph.incomingEdgesOf(v_center);
         if (((surroundingEdges.size() +sei.size()) >= 4) && (surroundingEdges.size() >= 1) && (sei.size() >= 1)) {
             Set<String> surroundingVertices = new HashSet<>();
             Set<String> vertices = new HashSet<>();
             int numberOfEdgesForSurrounding = 0;
-            DirectedGraph<String, DefaultEdge> outgoingStar = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleStar = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> outgoingStarLevel2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> outgoingStar = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleStar = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> outgoingStarLevel2 = new DefaultDirectedGraph<>(Edge.class);
             outgoingStar.addVertex(v_center);
             simpleStar.addVertex(v_center);
-            for (DefaultEdge sE : surroundingEdges) {
+            for (Edge sE : surroundingEdges) {
                 String v_level1 = sE.getTarget().toString();
-                Set<DefaultEdge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
-                Set<DefaultEdge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
+                Set<Edge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
+                Set<Edge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
                 numberOfEdgesForSurrounding += incomingEdges2.size();
                 numberOfEdgesForSurrounding += outgoingEdges2.size();
                 outgoingStar.addVertex(v_level1);
                 simpleStar.addVertex(v_level1);
-                addEdge(outgoingStar, sE.toString(), v_center, v_level1);
-                addEdge(simpleStar, sE.toString(), v_center, v_level1);
+                addEdge(outgoingStar, sE, v_center, v_level1);
+                addEdge(simpleStar, sE, v_center, v_level1);
                 vertices.add(v_level1);
-                for (DefaultEdge se2 : incomingEdges2) {
+                for (Edge se2 : incomingEdges2) {
                     String v_level2 = se2.getSource().toString();
                     if (v_level2.equals(v_center)) continue;
                     if (neighbourVertices.contains(v_level2)) {
@@ -1108,7 +1121,7 @@ public class GraphLOD {
                     }
                     surroundingVertices.add(v_level2);
                 }
-                for (DefaultEdge se2 : outgoingEdges2) {
+                for (Edge se2 : outgoingEdges2) {
                     String v_level2 = se2.getTarget().toString();
                     if (neighbourVertices.contains(v_level2)) {
                         // TODO count connectivity and allow some
@@ -1117,18 +1130,18 @@ public class GraphLOD {
                     surroundingVertices.add(v_level2);
                 }
             }
-            for (DefaultEdge sE : sei) {
+            for (Edge sE : sei) {
                 String v_level1 = sE.getSource().toString();
-                Set<DefaultEdge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
-                Set<DefaultEdge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
+                Set<Edge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
+                Set<Edge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
                 numberOfEdgesForSurrounding += incomingEdges2.size();
                 numberOfEdgesForSurrounding += outgoingEdges2.size();
                 outgoingStar.addVertex(v_level1);
                 simpleStar.addVertex(v_level1);
-                addEdge(outgoingStar, sE.toString(), v_level1, v_center);
-                addEdge(simpleStar, sE.toString(), v_level1, v_center);
+                addEdge(outgoingStar, sE, v_level1, v_center);
+                addEdge(simpleStar, sE, v_level1, v_center);
                 vertices.add(v_level1);
-                for (DefaultEdge se2 : incomingEdges2) {
+                for (Edge se2 : incomingEdges2) {
                     String v_level2 = se2.getSource().toString();
                     if (neighbourVertices.contains(v_level2)) {
                         // TODO count connectivity and allow some
@@ -1136,7 +1149,7 @@ public class GraphLOD {
                     }
                     surroundingVertices.add(v_level2);
                 }
-                for (DefaultEdge se2 : outgoingEdges2) {
+                for (Edge se2 : outgoingEdges2) {
                     String v_level2 = se2.getTarget().toString();
                     if (v_level2.equals(v_center)) continue;
                     if (neighbourVertices.contains(v_level2)) {
@@ -1181,7 +1194,7 @@ public class GraphLOD {
         //stats.put(centerNodeClass, classesSurrounding);
     }
 
-    private boolean checkVertexAsStartOfCircle(DirectedGraph<String, DefaultEdge> graph, String v, Set<String> verticesInCircles, boolean giantComponent) {
+    private boolean checkVertexAsStartOfCircle(DirectedGraph<String, Edge> graph, String v, Set<String> verticesInCircles, boolean giantComponent) {
         List<String> path = checkVertexAsPartOfCircle(graph, v, new ArrayList<String>());
 
         if (!giantComponent && (path.size() < graph.vertexSet().size())) {
@@ -1191,9 +1204,9 @@ public class GraphLOD {
         if (path.size() == 0) {
             return false;
         } else if (path.size() >= 4) {
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
             String lastVertex = null;
             for (String vertex : path) {
                 doublyLinkedPath.addVertex(vertex);
@@ -1221,14 +1234,14 @@ public class GraphLOD {
         return false;
     }
 
-    private void addPatternsAroundVertex(DirectedGraph<String, DefaultEdge> graph, String v, int degree) {
+    private void addPatternsAroundVertex(DirectedGraph<String, Edge> graph, String v, int degree) {
         List<String> neighbourVertices = GraphUtils.getNeighboursOfV(graph, v);
         Set<String> vertexList = new HashSet<>();
         vertexList.addAll(neighbourVertices);
         vertexList.add(v);
-        DirectedGraph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> directedGraphSurrounding = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> directedGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> directedGraphSurrounding = new DefaultDirectedGraph<>(Edge.class);
         for (String vertex : vertexList) {
             directedGraph.addVertex(vertex);
             simpleGraph.addVertex(vertex);
@@ -1242,13 +1255,13 @@ public class GraphLOD {
         addPatterns(new HashSet<>(), vertexList, graph, directedGraph, simpleGraph, directedGraphSurrounding, "Degree "+degree, true);
     }
 
-    private void addUnrecognizedPatterns(DirectedGraph<String, DefaultEdge> graph, String patternType, boolean giantComponent) {
+    private void addUnrecognizedPatterns(DirectedGraph<String, Edge> graph, String patternType, boolean giantComponent) {
         Set<String> vertices = graph.vertexSet();
         Set<String> vertexList = new HashSet<>();
         vertexList.addAll(vertices);
-        DirectedGraph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> directedGraphSurrounding = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> directedGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> directedGraphSurrounding = new DefaultDirectedGraph<>(Edge.class);
         for (String vertex : vertices) {
             directedGraph.addVertex(vertex);
             simpleGraph.addVertex(vertex);
@@ -1262,13 +1275,13 @@ public class GraphLOD {
         addPatterns(new HashSet<>(), vertexList, graph, directedGraph, simpleGraph, directedGraphSurrounding, patternType, giantComponent);
     }
 
-    private void addPatterns(Set<String> verticesInPattern, DirectedGraph<String, DefaultEdge> graph, DirectedSubgraph<String, DefaultEdge> subgraph, String patternType, boolean giantComponent) {
+    private void addPatterns(Set<String> verticesInPattern, DirectedGraph<String, Edge> graph, DirectedSubgraph<String, Edge> subgraph, String patternType, boolean giantComponent) {
         Set<String> vertices = subgraph.vertexSet();
         Set<String> vertexList = new HashSet<>();
         vertexList.addAll(vertices);
-        DirectedGraph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> directedGraphSurrounding = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> directedGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> directedGraphSurrounding = new DefaultDirectedGraph<>(Edge.class);
         for (String vertex : vertices) {
             directedGraph.addVertex(vertex);
             simpleGraph.addVertex(vertex);
@@ -1282,12 +1295,12 @@ public class GraphLOD {
         addPatterns(verticesInPattern, vertexList, graph, directedGraph, simpleGraph, directedGraphSurrounding, patternType, giantComponent);
     }
 
-    private void addPatterns(Set<String> vertices, DirectedGraph<String, DefaultEdge> graph, String patternType, boolean giantComponent) {
+    private void addPatterns(Set<String> vertices, DirectedGraph<String, Edge> graph, String patternType, boolean giantComponent) {
         Set<String> vertexList = new HashSet<>();
         vertexList.addAll(vertices);
-        DirectedGraph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> directedGraphSurrounding = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> directedGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> directedGraphSurrounding = new DefaultDirectedGraph<>(Edge.class);
         for (String vertex : vertices) {
             directedGraph.addVertex(vertex);
             simpleGraph.addVertex(vertex);
@@ -1301,15 +1314,15 @@ public class GraphLOD {
         addPatterns(new HashSet<>(), vertexList, graph, directedGraph, simpleGraph, directedGraphSurrounding, patternType, giantComponent);
     }
 
-    private void addPatterns(DirectedGraph<String, DefaultEdge> graph, DirectedSubgraph<String, DefaultEdge> subgraph, String patternType, boolean giantComponent) {
+    private void addPatterns(DirectedGraph<String, Edge> graph, DirectedSubgraph<String, Edge> subgraph, String patternType, boolean giantComponent) {
         addPatterns(new HashSet<>(), graph, subgraph, patternType, giantComponent);
     }
 
-    private void addPatterns(Set<String> vertices, DirectedGraph<String, DefaultEdge> graph, DirectedGraph<String, DefaultEdge> directedGraph, SimpleGraph<String, DefaultEdge> simpleGraph, DirectedGraph<String, DefaultEdge> directedGraphSurrounding, String patternType, boolean giantComponent) {
+    private void addPatterns(Set<String> vertices, DirectedGraph<String, Edge> graph, DirectedGraph<String, Edge> directedGraph, SimpleGraph<String, Edge> simpleGraph, DirectedGraph<String, Edge> directedGraphSurrounding, String patternType, boolean giantComponent) {
         addPatterns(new HashSet<>(), vertices, graph, directedGraph, simpleGraph, directedGraphSurrounding, patternType, giantComponent);
     }
 
-    private void addPatterns(Set<String> verticesInPattern, Set<String> vertices, DirectedGraph<String, DefaultEdge> graph, DirectedGraph<String, DefaultEdge> directedGraph, SimpleGraph<String, DefaultEdge> simpleGraph, DirectedGraph<String, DefaultEdge> directedGraphSurrounding, String patternType, boolean giantComponent) {
+    private void addPatterns(Set<String> verticesInPattern, Set<String> vertices, DirectedGraph<String, Edge> graph, DirectedGraph<String, Edge> directedGraph, SimpleGraph<String, Edge> simpleGraph, DirectedGraph<String, Edge> directedGraphSurrounding, String patternType, boolean giantComponent) {
         String mainPatternType = patternType;
         if (patternType.equals(OUTBOUND_STAR) || patternType.equals(INBOUND_STAR) || patternType.equals(MIXED_STAR)) {
             mainPatternType = STAR;
@@ -1341,7 +1354,7 @@ public class GraphLOD {
             }
         } else {
             if (!this.numbersOnly) {
-                this.patternsConnectedComponents.add(JsonOutput.getJson(directedGraph, new DefaultDirectedGraph<String, DefaultEdge>(DefaultEdge.class), patternType, this.dataset).toString());
+                this.patternsConnectedComponents.add(JsonOutput.getJson(directedGraph, new DefaultDirectedGraph<String, Edge>(Edge.class), patternType, this.dataset).toString());
                 this.connectedGraphs.add(simpleGraph);
                 addVerticesForPatterns(simpleGraph, this.connectedGraphs.indexOf(simpleGraph));
             }
@@ -1353,7 +1366,7 @@ public class GraphLOD {
     }
 
 
-    private void getNeighbourVerticesAndEdges(DirectedGraph<String, DefaultEdge> graph, DirectedGraph<String, DefaultEdge> pattern, DirectedGraph<String, DefaultEdge> patternLevel2) {
+    private void getNeighbourVerticesAndEdges(DirectedGraph<String, Edge> graph, DirectedGraph<String, Edge> pattern, DirectedGraph<String, Edge> patternLevel2) {
         for (String v: pattern.vertexSet()) {
             patternLevel2.addVertex(v);
             List<String> neighbourVertices = GraphUtils.getNeighboursOfV(graph, v);
@@ -1367,7 +1380,7 @@ public class GraphLOD {
         }
     }
 
-    private List<String> checkVertexAsPartOfCircle(DirectedGraph<String, DefaultEdge> graph, String v, List<String> visited) {
+    private List<String> checkVertexAsPartOfCircle(DirectedGraph<String, Edge> graph, String v, List<String> visited) {
         // TODO allow more vertices on other than first node!
         String nextVertex = null;
         boolean lastVertex = false;
@@ -1424,7 +1437,7 @@ public class GraphLOD {
         return path;
     }
 
-    private boolean checkVertexAsStartOfPath(DirectedGraph<String, DefaultEdge> graph, String v, Set<String> verticesInPaths, Set<String> verticesInOtherPatterns, boolean giantComponent, List<String> iteratedVertices) {
+    private boolean checkVertexAsStartOfPath(DirectedGraph<String, Edge> graph, String v, Set<String> verticesInPaths, Set<String> verticesInOtherPatterns, boolean giantComponent, List<String> iteratedVertices) {
         // Check if this is not the first vertex of a path
         List<String> neighbourV = GraphUtils.getNeighboursOfV(graph, v);
         if (GraphUtils.getNeighboursOfV(graph, v).size() == 2) {
@@ -1440,9 +1453,9 @@ public class GraphLOD {
         }
 
         if (path.size() >= 4) {
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
             String lastVertex = null;
             for (String vertex : path) {
                 doublyLinkedPath.addVertex(vertex);
@@ -1465,7 +1478,7 @@ public class GraphLOD {
         return false;
     }
 
-    private Set<String> checkVertexAsPartOfPath(DirectedGraph<String, DefaultEdge> graph, String v, List<String> visited, Set<String> verticesInOtherPatterns) {
+    private Set<String> checkVertexAsPartOfPath(DirectedGraph<String, Edge> graph, String v, List<String> visited, Set<String> verticesInOtherPatterns) {
         if (visited.contains(v)) return new HashSet<>();
 
         String nextVertex = null;
@@ -1507,7 +1520,7 @@ public class GraphLOD {
         return path;
     }
 
-    private boolean checkVertexAsStartOfLobster(DirectedGraph<String, DefaultEdge> graph, String v, Set<String> verticesInLobsters, boolean giantComponent) {
+    private boolean checkVertexAsStartOfLobster(DirectedGraph<String, Edge> graph, String v, Set<String> verticesInLobsters, boolean giantComponent) {
         Set<String> pathInLobster = new HashSet<>();
         Set<String> path = checkVertexAsPartOfLobster(graph, v, new ArrayList<>(), pathInLobster);
         if (path.size() <= pathInLobster.size()) return false;
@@ -1517,9 +1530,9 @@ public class GraphLOD {
         }
 
         if (pathInLobster.size() >= 4) {
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
             for (String vertex : path) {
                 doublyLinkedPath.addVertex(vertex);
                 simpleDoublyLinkedPath.addVertex(vertex);
@@ -1539,7 +1552,7 @@ public class GraphLOD {
         return true;
     }
 
-    private boolean checkVertexAsStartOfCaterpillar(DirectedGraph<String, DefaultEdge> graph, String v, Set<String> verticesInCaterpillars, boolean giantComponent) {
+    private boolean checkVertexAsStartOfCaterpillar(DirectedGraph<String, Edge> graph, String v, Set<String> verticesInCaterpillars, boolean giantComponent) {
         Set<String> pathInCaterpillar = new HashSet<>();
         Set<String> path = checkVertexAsPartOfCaterpillar(graph, v, new ArrayList<>(), pathInCaterpillar);
         if (path.size() <= pathInCaterpillar.size()) return false;
@@ -1549,9 +1562,9 @@ public class GraphLOD {
         }
 
         if (pathInCaterpillar.size() >= 4) {
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleDoublyLinkedPath = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> doublyLinkedPath2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleDoublyLinkedPath = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> doublyLinkedPath2 = new DefaultDirectedGraph<>(Edge.class);
             for (String vertex : path) {
                 doublyLinkedPath.addVertex(vertex);
                 simpleDoublyLinkedPath.addVertex(vertex);
@@ -1571,7 +1584,7 @@ public class GraphLOD {
         return true;
     }
 
-    private Set<String> checkVertexAsPartOfCaterpillar(DirectedGraph<String, DefaultEdge> graph, String v, List<String> visited, Set<String> mainPath) {
+    private Set<String> checkVertexAsPartOfCaterpillar(DirectedGraph<String, Edge> graph, String v, List<String> visited, Set<String> mainPath) {
         if (visited.contains(v)) return new HashSet<>();
 
         String nextVertex = null;
@@ -1630,7 +1643,7 @@ public class GraphLOD {
         return path;
     }
 
-    private Set<String> checkVertexAsPartOfLobster(DirectedGraph<String, DefaultEdge> graph, String v, List<String> visited, Set<String> mainPath) {
+    private Set<String> checkVertexAsPartOfLobster(DirectedGraph<String, Edge> graph, String v, List<String> visited, Set<String> mainPath) {
         if (visited.contains(v)) return new HashSet<>();
 
         String nextVertex = null;
@@ -1695,7 +1708,7 @@ public class GraphLOD {
         return path;
     }
 
-    private String checkIfAllNeighboursCouldBePartOfCaterpillar(DirectedGraph<String, DefaultEdge> graph, List<String> neighbourV, String vertex, List<String> visited) {
+    private String checkIfAllNeighboursCouldBePartOfCaterpillar(DirectedGraph<String, Edge> graph, List<String> neighbourV, String vertex, List<String> visited) {
         boolean alreadyOnVerticeWithNeighbour = false;
         String nextV = null;
         Set<Integer> neighbourList = new HashSet<>();
@@ -1727,7 +1740,7 @@ public class GraphLOD {
         return nextV;
     }
 
-    private String checkIfAllNeighboursCouldBePartOfLobster(DirectedGraph<String, DefaultEdge> graph, List<String> neighbourV, String vertex, List<String> visited) {
+    private String checkIfAllNeighboursCouldBePartOfLobster(DirectedGraph<String, Edge> graph, List<String> neighbourV, String vertex, List<String> visited) {
         boolean alreadyOneVerticeWithNeighbour = false;
         String nextV = null;
         Set<Integer> neighbourList = new HashSet<>();
@@ -1769,7 +1782,7 @@ public class GraphLOD {
         return nextV;
     }
 
-    private boolean checkVertexAsCentreOfAntenna(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesInAntennas, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfAntenna(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesInAntennas, boolean giantComponent) {
         List<String> neighbourVertices = GraphUtils.getNeighboursOfV(graph, v_center);
         if (neighbourVertices.size() < 4) {
             return false;
@@ -1791,9 +1804,9 @@ public class GraphLOD {
             return false;
         }
 
-        DirectedGraph<String, DefaultEdge> directedGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-        SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
-        DirectedGraph<String, DefaultEdge> surroundingGraph = new DefaultDirectedGraph<>(DefaultEdge.class);
+        DirectedGraph<String, Edge> directedGraph = new DefaultDirectedGraph<>(Edge.class);
+        SimpleGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+        DirectedGraph<String, Edge> surroundingGraph = new DefaultDirectedGraph<>(Edge.class);
         directedGraph.addVertex(v_center);
         simpleGraph.addVertex(v_center);
         for (String vertex : neighbourVertices) {
@@ -1812,7 +1825,7 @@ public class GraphLOD {
         return true;
     }
 
-    private boolean checkVertexAsCentreOfInboundStar(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfInboundStar(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
         if (graph.outgoingEdgesOf(v_center).size() > 0) {
             return false;
         }
@@ -1825,26 +1838,26 @@ public class GraphLOD {
         }
         Set<String> vertices = new HashSet<>();
         Set<String> surroundingVertices = new HashSet<>();
-        Set<DefaultEdge> surroundingIEdges = graph.incomingEdgesOf(v_center);
+        Set<Edge> surroundingIEdges = graph.incomingEdgesOf(v_center);
         if (surroundingIEdges.size() >= 4) {
             int numberOfEdgesForSurrounding = 0;
-            DirectedGraph<String, DefaultEdge> outgoingStar = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleStar = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> outgoingStarLevel2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> outgoingStar = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleStar = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> outgoingStarLevel2 = new DefaultDirectedGraph<>(Edge.class);
             outgoingStar.addVertex(v_center);
             simpleStar.addVertex(v_center);
-            for (DefaultEdge surroundingEdge : surroundingIEdges) {
+            for (Edge surroundingEdge : surroundingIEdges) {
                 String v_level1 = surroundingEdge.getSource().toString();
-                Set<DefaultEdge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
-                Set<DefaultEdge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
+                Set<Edge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
+                Set<Edge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
                 numberOfEdgesForSurrounding += incomingEdges2.size();
                 numberOfEdgesForSurrounding += outgoingEdges2.size();
                 outgoingStar.addVertex(v_level1);
                 simpleStar.addVertex(v_level1);
-                addEdge(outgoingStar, surroundingEdge.toString(), v_level1, v_center);
-                addEdge(simpleStar, surroundingEdge.toString(), v_level1, v_center);
+                addEdge(outgoingStar, surroundingEdge, v_level1, v_center);
+                addEdge(simpleStar, surroundingEdge, v_level1, v_center);
                 vertices.add(v_level1);
-                for (DefaultEdge se2 : incomingEdges2) {
+                for (Edge se2 : incomingEdges2) {
                     String v_level2 = se2.getSource().toString();
                     if (neighbourVertices.contains(v_level2)) {
                         // TODO count connectivity and allow some
@@ -1852,7 +1865,7 @@ public class GraphLOD {
                     }
                     surroundingVertices.add(v_level2);
                 }
-                for (DefaultEdge se2 : outgoingEdges2) {
+                for (Edge se2 : outgoingEdges2) {
                     String v_level2 = se2.getTarget().toString();
                     if (v_level2.equals(v_center)) continue;
                     if (neighbourVertices.contains(v_level2)) {
@@ -1873,7 +1886,7 @@ public class GraphLOD {
         return false;
     }
 
-    private void addVerticesForPatterns(SimpleGraph<String, DefaultEdge> simpleStar, int patternId) {
+    private void addVerticesForPatterns(SimpleGraph<String, Edge> simpleStar, int patternId) {
         for (String vertex: simpleStar.vertexSet()) {
             List patternIds = new ArrayList();
             if (this.verticesInPatterns.containsKey(vertex)) {
@@ -1884,33 +1897,33 @@ public class GraphLOD {
         }
     }
 
-    private void addEdgesOnLevel2Vertices(GraphFeatures graphFeatures, DirectedGraph<String, DefaultEdge> graph, Set<String> verticesLevel2) {
+    private void addEdgesOnLevel2Vertices(GraphFeatures graphFeatures, DirectedGraph<String, Edge> graph, Set<String> verticesLevel2) {
         for (String v : verticesLevel2) {
-            Set<DefaultEdge> incomingEdges = graphFeatures.incomingEdgesOf(v);
-            Set<DefaultEdge> outgoingEdges = graphFeatures.outgoingEdgesOf(v);
+            Set<Edge> incomingEdges = graphFeatures.incomingEdgesOf(v);
+            Set<Edge> outgoingEdges = graphFeatures.outgoingEdgesOf(v);
             // TODO don't add in- & outcoming links twice
-            for (DefaultEdge edge : incomingEdges) {
+            for (Edge edge : incomingEdges) {
                 String linkedVertice = edge.getSource().toString();
                 if (verticesLevel2.contains(linkedVertice)) {
-                    addEdge(graph, edge.toString(), linkedVertice, v);
+                    addEdge(graph, edge, linkedVertice, v);
                 }
             }
-            for (DefaultEdge edge : outgoingEdges) {
+            for (Edge edge : outgoingEdges) {
                 String linkedVertice = edge.getTarget().toString();
                 if (verticesLevel2.contains(linkedVertice)) {
-                    addEdge(graph, edge.toString(), v, linkedVertice);
+                    addEdge(graph, edge, v, linkedVertice);
                 }
             }
         }
 
     }
 
-    private void getWalks(SimpleGraph<String, DefaultEdge>  g) {
+    private void getWalks(SimpleGraph<String, Edge>  g) {
         int highestDegree = 0;
         List<String> vertices = new ArrayList<>();
         HashMap<String, String> classes = new HashMap<>();
         for (String vertex : g.vertexSet()) {
-            Set<DefaultEdge> edges = g.edgesOf(vertex);
+            Set<Edge> edges = g.edgesOf(vertex);
 
             Integer edgeCount = g.degreeOf(vertex);
             if (edgeCount > highestDegree) {
@@ -1942,7 +1955,7 @@ public class GraphLOD {
 
     }
 
-    private boolean checkVertexAsCentreOfOutboundStar(DirectedGraph<String, DefaultEdge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
+    private boolean checkVertexAsCentreOfOutboundStar(DirectedGraph<String, Edge> graph, String v_center, Set<String> verticesInStars, boolean giantComponent) {
         if (graph.incomingEdgesOf(v_center).size() > 0) {
             return false;
         }
@@ -1953,28 +1966,28 @@ public class GraphLOD {
         if (!giantComponent && ((neighbourVertices.size() + 1) < graph.vertexSet().size())) {
             return false;
         }
-        Set<DefaultEdge> surroundingEdges = graph.outgoingEdgesOf(v_center);
+        Set<Edge> surroundingEdges = graph.outgoingEdgesOf(v_center);
         Set<String> surroundingVertices = new HashSet<>();
         Set<String> vertices = new HashSet<>();
         if (surroundingEdges.size() >= 4) {
             int numberOfEdgesForSurrounding = 0;
-            DirectedGraph<String, DefaultEdge> outgoingStar = new DefaultDirectedGraph<>(DefaultEdge.class);
-            SimpleGraph<String, DefaultEdge> simpleStar = new SimpleGraph<>(DefaultEdge.class);
-            DirectedGraph<String, DefaultEdge> outgoingStarLevel2 = new DefaultDirectedGraph<>(DefaultEdge.class);
+            DirectedGraph<String, Edge> outgoingStar = new DefaultDirectedGraph<>(Edge.class);
+            SimpleGraph<String, Edge> simpleStar = new SimpleGraph<>(Edge.class);
+            DirectedGraph<String, Edge> outgoingStarLevel2 = new DefaultDirectedGraph<>(Edge.class);
             outgoingStar.addVertex(v_center);
             simpleStar.addVertex(v_center);
-            for (DefaultEdge surroundingEdge : surroundingEdges) {
+            for (Edge surroundingEdge : surroundingEdges) {
                 String v_level1 = surroundingEdge.getTarget().toString();
-                Set<DefaultEdge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
-                Set<DefaultEdge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
+                Set<Edge> incomingEdges2 = graph.incomingEdgesOf(v_level1);
+                Set<Edge> outgoingEdges2 = graph.outgoingEdgesOf(v_level1);
                 numberOfEdgesForSurrounding += incomingEdges2.size();
                 numberOfEdgesForSurrounding += outgoingEdges2.size();
                 outgoingStar.addVertex(v_level1);
                 simpleStar.addVertex(v_level1);
-                addEdge(outgoingStar, surroundingEdge.toString(), v_center, v_level1);
-                addEdge(simpleStar, surroundingEdge.toString(), v_center, v_level1);
+                addEdge(outgoingStar, surroundingEdge, v_center, v_level1);
+                addEdge(simpleStar, surroundingEdge, v_center, v_level1);
                 vertices.add(v_level1);
-                for (DefaultEdge se2 : incomingEdges2) {
+                for (Edge se2 : incomingEdges2) {
                     String v_level2 = se2.getSource().toString();
                     if (v_level2.equals(v_center)) continue;
                     if (neighbourVertices.contains(v_level2)) {
@@ -1983,7 +1996,7 @@ public class GraphLOD {
                     }
                     surroundingVertices.add(v_level2);
                 }
-                for (DefaultEdge se2 : outgoingEdges2) {
+                for (Edge se2 : outgoingEdges2) {
                     String v_level2 = se2.getTarget().toString();
                     if (neighbourVertices.contains(v_level2)) {
                         // TODO count connectivity and allow some
@@ -2002,15 +2015,12 @@ public class GraphLOD {
         return false;
     }
 
-    private void addEdge(Graph<String, DefaultEdge> graph, String name, String source, String target) {
-        DefaultEdge e = new DefaultEdge(name);
-        e.setSource(source);
-        e.setTarget(target);
-        graph.addEdge(source, target, e);
+    private void addEdge(Graph<String, Edge> graph, Edge edge, String source, String target) {
+        graph.addEdge(source, target, new Edge(edge.getPredicate()));
     }
 
-    private void addEdges(Graph<String, DefaultEdge> graph, Set<DefaultEdge> edges, String source, String target) {
-        for (DefaultEdge e: edges) {
+    private void addEdges(Graph<String, Edge> graph, Set<Edge> edges, String source, String target) {
+        for (Edge e: edges) {
             graph.addEdge(source, target, e);
         }
     }
@@ -2031,7 +2041,7 @@ public class GraphLOD {
         }
     }
 
-    private void groupIsomorphicGraphs(List<SimpleGraph<String, DefaultEdge>> connectedGraphs, List<String> connectedGraphsTypes, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
+    private void groupIsomorphicGraphs(List<SimpleGraph<String, Edge>> connectedGraphs, List<String> connectedGraphsTypes, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
         int i = 0;
         String type;
         for (SimpleGraph connectedSet : connectedGraphs) {
@@ -2083,7 +2093,7 @@ public class GraphLOD {
     }
 
     /*
-    private void groupIsomorphicGraphs(List<SimpleGraph<String, DefaultEdge>> connectedGraphs, List<String> connectedGraphsTypes, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
+    private void groupIsomorphicGraphs(List<SimpleGraph<String, Edge>> connectedGraphs, List<String> connectedGraphsTypes, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
         int i = 0;
         String type;
         for (SimpleGraph connectedSet : connectedGraphs) {
@@ -2135,7 +2145,7 @@ public class GraphLOD {
     }
     */
 
-    private void groupIsomorphicGraphsByColor(List<SimpleGraph<String, DefaultEdge>> connectedGraphs, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
+    private void groupIsomorphicGraphsByColor(List<SimpleGraph<String, Edge>> connectedGraphs, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
         logger.info("Color isomorphism groups for patterns");
         for (List<Integer> isomorphicGraphList : isomorphicGraphs) {
             Integer indexIsomorphicList = isomorphicGraphs.indexOf(isomorphicGraphList);
@@ -2147,22 +2157,22 @@ public class GraphLOD {
             }
             */
 
-            // List<SimpleGraph<String, DefaultEdge>> isomorphicGraphsTemp = new ArrayList<>();
+            // List<SimpleGraph<String, Edge>> isomorphicGraphsTemp = new ArrayList<>();
             List<Integer> isomorphicGraphsTemp = new ArrayList<>();
 
-            //List<SimpleGraph<String, DefaultEdge>> colorIsoGF = new ArrayList<>();
+            //List<SimpleGraph<String, Edge>> colorIsoGF = new ArrayList<>();
             List<Integer> colorIsoGF = new ArrayList<>();
 
             Integer colorIsoGroupIndex = -1;
             for (Integer graphNr : isomorphicGraphList) {
                 logger.debug("\tChecking color isomorphism for graph {}/{}.", graphNr, isomorphicGraphList.size());
 
-                SimpleGraph<String, DefaultEdge> gf = connectedGraphs.get(graphNr);
+                SimpleGraph<String, Edge> gf = connectedGraphs.get(graphNr);
                 isomorphicGraphsTemp.add(graphNr);
 
                 boolean newColorIsomorphismGroup = true;
                 for (Integer coloredGraphFeatureId: colorIsoGF) {
-                    SimpleGraph<String, DefaultEdge> coloredGF = connectedGraphs.get(coloredGraphFeatureId);
+                    SimpleGraph<String, Edge> coloredGF = connectedGraphs.get(coloredGraphFeatureId);
                     Set<String> verticesOfGraph = gf.vertexSet();
                     Set<String> verticesOfGraphToCheck = coloredGF.vertexSet();
                     List<String> classesGraph = new ArrayList<>();
@@ -2257,7 +2267,7 @@ public class GraphLOD {
     }
 
     /*
-    private void groupIsomorphicGraphsByColor(List<SimpleGraph<String, DefaultEdge>> connectedGraphs, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
+    private void groupIsomorphicGraphsByColor(List<SimpleGraph<String, Edge>> connectedGraphs, List<List<Integer>> isomorphicGraphs, List<String> isomorphicGraphsTypes, HashMap<Integer, List<String>> colorIsomorphicPatterns, HashMap<Integer, HashMap<String, Integer>> patterns, HashMap<Integer, HashMap<Integer, List<String>>> coloredPatterns, List<String> patternsWithSurrounding) {
         logger.info("Color isomorphism groups for patterns");
         for (List<Integer> isomorphicGraphList : isomorphicGraphs) {
             Integer indexIsomorphicList = isomorphicGraphs.indexOf(isomorphicGraphList);
@@ -2267,18 +2277,18 @@ public class GraphLOD {
 //            if (graphRenderer != null) {
 //                this.graphRenderer.writeDotFile(index.toString(), graphFeatures.get(isomorphicGraphList.get(0)), false);
 //            }
-    List<SimpleGraph<String, DefaultEdge>> isomorphicGraphsTemp = new ArrayList<>();
+    List<SimpleGraph<String, Edge>> isomorphicGraphsTemp = new ArrayList<>();
 
-    List<SimpleGraph<String, DefaultEdge>> colorIsoGF = new ArrayList<>();
+    List<SimpleGraph<String, Edge>> colorIsoGF = new ArrayList<>();
     Integer colorIsoGroupIndex = -1;
     for (Integer graphNr : isomorphicGraphList) {
         logger.debug("\tChecking color isomorphism for graph {}/{}.", graphNr, isomorphicGraphList.size());
 
-        SimpleGraph<String, DefaultEdge> gf = connectedGraphs.get(graphNr);
+        SimpleGraph<String, Edge> gf = connectedGraphs.get(graphNr);
         isomorphicGraphsTemp.add(gf);
 
         boolean newColorIsomorphismGroup = true;
-        for (SimpleGraph<String, DefaultEdge> coloredGF: colorIsoGF) {
+        for (SimpleGraph<String, Edge> coloredGF: colorIsoGF) {
             Set<String> verticesOfGraph = gf.vertexSet();
             Set<String> verticesOfGraphToCheck = coloredGF.vertexSet();
             List<String> classesGraph = new ArrayList<>();
@@ -2489,9 +2499,18 @@ public class GraphLOD {
     }
 
     private void printComponentSizeAndCount(Collection<Set<String>> sets) {
-        Multiset<Integer> sizes = TreeMultiset.create();
+        int[] sizes = new int[sets.size()];
+        int i = 0;
         for (Set<String> component : sets) {
-            sizes.add(component.size());
+            sizes[i++] = component.size();
+        }
+        printComponentSizeAndCount(sizes);
+    }
+
+    private static void printComponentSizeAndCount(int[] componentSizes) {
+        Multiset<Integer> sizes = TreeMultiset.create();
+        for (int size : componentSizes) {
+            sizes.add(size);
         }
         logger.info("\t\tComponents (and sizes): ");
         for (Multiset.Entry<Integer> group : sizes.entrySet()) {
@@ -2501,13 +2520,16 @@ public class GraphLOD {
 
     private void analyzeConnectedGraph(GraphFeatures graph, int importantDegreeCount, int groupnr) {
         Preconditions.checkArgument(graph.isConnected());
-        if (graph.getVertexCount() < MAX_SIZE_FOR_DIAMETER) {
-            logger.info("\tedges: " + graph.getEdgeCount() + ", diameter: " + graph.getDiameter());
+        // exact below MAX_SIZE_FOR_DIAMETER, bounded sweeps above, but always the same undirected measure
+        DiameterBounds bounds = graph.getDiameterBounds(
+                graph.getVertexCount() < MAX_SIZE_FOR_DIAMETER ? Integer.MAX_VALUE : MAX_DIAMETER_SWEEPS);
+        if (bounds.isExact()) {
+            logger.info("\tedges: " + graph.getEdgeCount() + ", undirected diameter: " + bounds.getLower());
         } else {
-            logger.warn("\tGraph too big to show diameter");
+            logger.info("\tedges: " + graph.getEdgeCount() + ", undirected diameter: " + bounds.getLower() + " to " + bounds.getUpper());
         }
         if (!apiOnly) {
-            graphCsvOutput.writeGraph(graph);
+            graphCsvOutput.writeGraph(graph, bounds);
             vertexCsvOutput.writeGraph(graph);
         }
         logger.info("\thighest indegrees:");
@@ -2515,10 +2537,11 @@ public class GraphLOD {
         logger.info("\thighest outdegrees:");
         logger.info("\t\t" + StringUtils.join(graph.maxOutDegrees(importantDegreeCount), "\n\t\t"));
 
-        // TODO: BiconnectedSets are too slow, even for Diseasome!
+        BiconnectedComponents blocks = graph.getBiconnectedComponents();
+        logger.info("\tBiconnected components: " + formatInt(blocks.getBlockCount())
+                + ", articulation points: " + formatInt(blocks.getArticulationPointCount()));
+        printComponentSizeAndCount(blocks.getBlockSizes());
         //Set<Set<String>> bcc_sets = graph.getBiConnectedSets();
-        //logger.info("\tBiconnected components: " + formatInt(bcc_sets.size()));
-        //printComponentSizeAndCount(bcc_sets);
         //graphRenderer.writeDotFiles(name, "biconnected_"+groupnr, graph.createSubGraphFeatures(bcc_sets));
     }
 
@@ -2560,7 +2583,14 @@ public class GraphLOD {
         //BasicConfigurator.configure();
         Locale.setDefault(Locale.US);
 
-        Dataset dataset = Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces());
+        if (arguments.getOutOfCoreDir() != null) {
+            Dataset dataset = Dataset.fromFilesOutOfCore(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces(), arguments.getIngestThreads(), arguments.isMappedReader(), arguments.getOutOfCoreDir());
+            analyzeDiskGraph(dataset.getDiskGraph());
+            return;
+        }
+
+        Dataset dataset = Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces(), arguments.getIngestThreads(), arguments.isMappedReader(), arguments.getSnapshotDir(),
+                !arguments.isApiOnly() && !arguments.isNumbersOnly());
 
         if (arguments.isRunGrami()) {
             GramiAnalysis g = new GramiAnalysis();
@@ -2574,20 +2604,36 @@ public class GraphLOD {
         }
     }
 
+    /**
+     * Connectivity of a graph read out of core. The other analyses need the graph in memory.
+     */
+    private static void analyzeDiskGraph(DiskCsrGraph graph) {
+        NumberFormat format = NumberFormat.getNumberInstance(Locale.US);
+        logger.info("Vertices: " + format.format(graph.getVertexCount()));
+        logger.info("Edges: " + format.format(graph.getEdgeCount()));
+
+        Stopwatch sw = Stopwatch.createStarted();
+        int[] componentSizes = GraphFeatures.getComponentSizes(GraphFeatures.getConnectedComponents(graph));
+        logger.info("Connected sets: " + format.format(componentSizes.length));
+        printComponentSizeAndCount(componentSizes);
+        logger.debug("Getting the connectivity took " + sw + " to execute.");
+    }
+
     private void getStatistics() {
         this.nodes = this.dataset.getGraph().vertexSet().size();
         this.edges = this.dataset.getGraph().edgeSet().size();
     }
 
     public void createComponents() {
-        List<Set<String>> sets = graphFeatures.getConnectedSets();
-        logger.info("Connected sets: " + formatInt(sets.size()));
-        printComponentSizeAndCount(sets);
+        int[] components = graphFeatures.getConnectedComponents();
+        int[] sizes = GraphFeatures.getComponentSizes(components);
+        logger.info("Connected sets: " + formatInt(sizes.length));
+        printComponentSizeAndCount(sizes);
 
-        if (graphFeatures.isConnected()) {
+        if (sizes.length == 1) {
             connectedGraphFeatures.add(graphFeatures);
         } else {
-            connectedGraphFeatures = graphFeatures.createSubGraphFeatures(graphFeatures.getConnectedSets());
+            connectedGraphFeatures = graphFeatures.createSubGraphFeatures(components);
         }
     }
 
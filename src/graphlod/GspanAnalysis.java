@@ -21,8 +21,6 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
-import org.jgraph.graph.DefaultEdge;
-
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
@@ -53,9 +51,9 @@ public class GspanAnalysis {
         }
 
         // Add edges to graph.
-        Set<DefaultEdge> edges = dataset.getGraph().edgeSet();
-        for (final DefaultEdge e : edges) {
-            graph.addEdgeIndex(nodes.get(e.getSource().toString()), nodes.get(e.getTarget().toString()), e.getUserObject().toString(), Edge.OUTGOING);
+        Set<graphlod.dataset.Edge> edges = dataset.getGraph().edgeSet();
+        for (final graphlod.dataset.Edge e : edges) {
+            graph.addEdgeIndex(nodes.get(e.getSource()), nodes.get(e.getTarget()), dataset.getDictionary().getUri(e.getPredicate()), Edge.OUTGOING);
         }
 
 
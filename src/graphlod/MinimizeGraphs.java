@@ -2,8 +2,9 @@ package graphlod;
 
 import graphlod.algorithms.GraphFeatures;
 import graphlod.dataset.Dataset;
+import graphlod.dataset.Edge;
 import graphlod.output.JsonOutput;
-import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.UndirectedGraph;
 
 import java.util.*;
 
@@ -13,7 +14,7 @@ public class MinimizeGraphs {
     public HashMap<Integer, Integer> isoGroups = new HashMap<>();
 
     public MinimizeGraphs(ArgumentParser arguments) {
-        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces()));
+        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces(), arguments.getIngestThreads(), arguments.isMappedReader(), arguments.getSnapshotDir()));
     }
 
     public MinimizeGraphs(String name, Dataset dataset) {
@@ -23,14 +24,14 @@ public class MinimizeGraphs {
         if (graphFeatures.isConnected()) {
             connectedGraphs.add(graphFeatures);
         } else {
-            connectedGraphs = graphFeatures.createSubGraphFeatures(graphFeatures.getConnectedSets());
+            connectedGraphs = graphFeatures.createSubGraphFeatures(graphFeatures.getConnectedComponents());
         }
 
         for (GraphFeatures connectedComponent : connectedGraphs) {
             if (connectedComponent.getVertexCount() > 200) continue;
             if (connectedComponent.getVertexCount() == 1) continue;
 
-            SimpleGraph g = connectedComponent.getSimpleGraph();
+            UndirectedGraph<String, Edge> g = connectedComponent.getSimpleGraph();
             String minimizedGraphPattern = graphLod.getMinimizedPatterns(g);
 
             String json = JsonOutput.getJsonColored(g, graphLod.dataset).toString().replaceAll("\\\\/", "/");
@@ -15,7 +15,7 @@ public class SatelliteComponentAnalysis {
     private GraphLOD graphLod;
 
     public SatelliteComponentAnalysis(ArgumentParser arguments) {
-        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces()));
+        this(arguments.getName(), Dataset.fromFiles(arguments.getDataset(), arguments.getName(), arguments.getNamespace(), arguments.getOntns(), arguments.getExcludedNamespaces(), arguments.getIngestThreads(), arguments.isMappedReader(), arguments.getSnapshotDir()));
     }
 
     public SatelliteComponentAnalysis(String name, Dataset dataset) {
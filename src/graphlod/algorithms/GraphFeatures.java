@@ -1,10 +1,17 @@
 package graphlod.algorithms;
 
-import graphlod.utils.CollectionUtils;
 import graphlod.dataset.Dataset;
+import graphlod.graph.BiconnectedComponents;
+import graphlod.graph.ConcurrentUnionFind;
+import graphlod.graph.CsrGraph;
 import graphlod.graph.Degree;
+import graphlod.graph.DegreeHistogram;
+import graphlod.graph.DegreeSequence;
+import graphlod.graph.DiameterBounds;
+import graphlod.graph.DiskCsrGraph;
 import graphlod.utils.GraphUtils;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
+import org.apache.commons.lang3.Validate;
 import org.jgrapht.*;
 import org.jgrapht.alg.*;
 import org.jgrapht.event.EdgeTraversalEvent;
@@ -13,97 +20,583 @@ import org.jgrapht.event.VertexTraversalEvent;
 import org.jgrapht.experimental.GraphTests;
 import org.jgrapht.graph.AsUndirectedGraph;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.DirectedPseudograph;
+import org.jgrapht.graph.GraphPathImpl;
 import org.jgrapht.graph.SimpleGraph;
 import org.jgrapht.traverse.DepthFirstIterator;
 import org.jgrapht.traverse.GraphIterator;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 
 public class GraphFeatures {
-	private DirectedGraph<String, DefaultEdge> graph;
-	private ConnectivityInspector<String, DefaultEdge> connectivity;
-	private List<Integer> degrees = null;
-	private List<Integer> indegrees = null;
-	private List<Integer> outdegrees = null;
-	private List<Degree> degrees2 = null;
-	private List<Degree> indegrees2 = null;
-	private List<Degree> outdegrees2 = null;
+	private static final int MIN_VERTICES_PER_THREAD = 1 << 16;
+	private DirectedGraph<String, Edge> graph;
+	private CsrGraph csr;
+	private DegreeSequence degrees = null;
+	private DegreeSequence indegrees = null;
+	private DegreeSequence outdegrees = null;
+	private DegreeSequence edgeCounts = null;
 	private Set<String> vertices;
-	private final Set<DefaultEdge> edges;
-	private AsUndirectedGraph<String, DefaultEdge> undirectedG;
+	private final Set<Edge> edges;
+	private AsUndirectedGraph<String, Edge> undirectedG;
 	private String id;
 	private String type;
-	private List<DefaultEdge> edgesDeletedTemp = new ArrayList<>();
+	private List<Edge> edgesDeletedTemp = new ArrayList<>();
 	private List<String> verticesDeletedTemp = new ArrayList<>();
 	private Boolean isPathGraph;
 	private Boolean isTree;
 	private Boolean containsCycle;
-	private SimpleGraph<String, DefaultEdge> simpleGraph;
+	private Boolean isBipartite;
+	private UndirectedGraph<String, Edge> simpleGraph;
 
-	public SimpleGraph<String, DefaultEdge> getSimpleGraph() {
+	public UndirectedGraph<String, Edge> getSimpleGraph() {
 		return simpleGraph;
 	}
-	public DirectedGraph<String, DefaultEdge> getGraph() {
+	public DirectedGraph<String, Edge> getGraph() {
 		return this.graph;
 	}
 
-	public GraphFeatures(String id, DirectedGraph<String, DefaultEdge> graph, SimpleGraph<String, DefaultEdge> simpleGraph) {
+	public GraphFeatures(String id, DirectedGraph<String, Edge> graph, UndirectedGraph<String, Edge> simpleGraph) {
+		this(id, graph, simpleGraph, null);
+	}
+
+	/**
+	 * @param csr snapshot of graph used for degrees, neighbours, connectivity and cycles, built on first use if null
+	 */
+	public GraphFeatures(String id, DirectedGraph<String, Edge> graph, UndirectedGraph<String, Edge> simpleGraph, CsrGraph csr) {
 		this.id = id;
 		this.graph = graph;
 		this.simpleGraph = simpleGraph;
+		this.csr = csr;
 		this.vertices = this.graph.vertexSet();
 		this.edges = this.graph.edgeSet();
-		this.connectivity = new ConnectivityInspector<>(this.graph);
 		this.undirectedG = new AsUndirectedGraph<>(this.graph);
 	}
 
+	public CsrGraph getCsrGraph() {
+		if (this.csr == null) {
+			this.csr = new CsrGraph(this.graph);
+		}
+		return this.csr;
+	}
+
 	public Integer getHashCode() {
 		return this.simpleGraph.hashCode();
 	}
 
 	public List<String> getNeighbourVertices(String v) {
-		return GraphUtils.getNeighboursOfV(this.graph, v);
+		CsrGraph csr = getCsrGraph();
+		int index = csr.indexOf(v);
+		if (index < 0) {
+			throw new IllegalArgumentException("no such vertex in graph: " + v);
+		}
+		List<String> neighbours = new ArrayList<>(csr.neighbourEnd(index) - csr.neighbourStart(index));
+		for (int i = csr.neighbourStart(index); i < csr.neighbourEnd(index); i++) {
+			neighbours.add(csr.getVertex(csr.neighbour(i)));
+		}
+		return neighbours;
 	}
 	
 	public boolean isConnected() {
-		return this.connectivity.isGraphConnected();
+		CsrGraph csr = getCsrGraph();
+		if (csr.getVertexCount() == 0) {
+			return false;
+		}
+		return breadthFirstSearch(csr, 0, new int[csr.getVertexCount()], new BitSet()) == csr.getVertexCount();
+	}
+
+	/**
+	 * Visits the component of start ignoring edge directions. The visited vertices are marked in seen and
+	 * written to queue.
+	 * @return the number of vertices in the component
+	 */
+	private static int breadthFirstSearch(CsrGraph csr, int start, int[] queue, BitSet seen) {
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		seen.set(start);
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+				int u = csr.neighbour(i);
+				if (!seen.get(u)) {
+					seen.set(u);
+					queue[tail++] = u;
+				}
+			}
+		}
+		return tail;
 	}
 
+	/**
+	 * The longest shortest path along the edge directions between two vertices with a path between them.
+	 * Runs a breadth first search from every vertex, so it takes O(n * m).
+	 */
 	public double getDiameter() {
-		FloydWarshallShortestPaths<String, DefaultEdge> fw = new FloydWarshallShortestPaths<>(graph);
-		return fw.getDiameter();
+		int diameter = 0;
+		for (int eccentricity : getEccentricities()) {
+			diameter = Math.max(diameter, eccentricity);
+		}
+		return diameter;
+	}
+
+	/**
+	 * The longest shortest path along the edge directions from each vertex to a vertex it reaches.
+	 * @return the eccentricity of each vertex index of {@link #getCsrGraph()}
+	 */
+	public int[] getEccentricities() {
+		CsrGraph csr = getCsrGraph();
+		int[] eccentricities = new int[csr.getVertexCount()];
+		new EccentricityTask(csr, 0, csr.getVertexCount(), eccentricities, null).invoke();
+		return eccentricities;
+	}
+
+	/**
+	 * One breadth first search along the edge directions per source vertex. The sources are split until
+	 * each core of the fork join pool got a few ranges, each worker thread reuses one queue and distance
+	 * array for all ranges it runs.
+	 */
+	private static class EccentricityTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final CsrGraph csr;
+		private final int start;
+		private final int end;
+		private final int[] eccentricities;
+		private final int[] farthest;
+		private final int rangeSize;
+		private final ThreadLocal<int[][]> buffers;
+
+		/**
+		 * @param farthest receives the smallest vertex index at the eccentricity of each source, if not null
+		 */
+		EccentricityTask(CsrGraph csr, int start, int end, int[] eccentricities, int[] farthest) {
+			this(csr, start, end, eccentricities, farthest,
+					Math.max(1, (end - start) / (ForkJoinPool.getCommonPoolParallelism() * 4)), new ThreadLocal<int[][]>());
+		}
+
+		private EccentricityTask(CsrGraph csr, int start, int end, int[] eccentricities, int[] farthest, int rangeSize,
+				ThreadLocal<int[][]> buffers) {
+			this.csr = csr;
+			this.start = start;
+			this.end = end;
+			this.eccentricities = eccentricities;
+			this.farthest = farthest;
+			this.rangeSize = rangeSize;
+			this.buffers = buffers;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > rangeSize) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new EccentricityTask(csr, start, middle, eccentricities, farthest, rangeSize, buffers),
+						new EccentricityTask(csr, middle, end, eccentricities, farthest, rangeSize, buffers));
+				return;
+			}
+			// one thread local per invocation, the workers drop its arrays once it is collected
+			int[][] buffer = buffers.get();
+			if (buffer == null) {
+				int n = csr.getVertexCount();
+				buffer = new int[][]{new int[n], new int[n]};
+				Arrays.fill(buffer[1], -1);
+				buffers.set(buffer);
+			}
+			int[] queue = buffer[0];
+			int[] distance = buffer[1];
+			for (int source = start; source < end; source++) {
+				int head = 0;
+				int tail = 0;
+				queue[tail++] = source;
+				distance[source] = 0;
+				int last = source;
+				while (head < tail) {
+					int v = queue[head++];
+					for (int i = csr.outStart(v); i < csr.outEnd(v); i++) {
+						int u = csr.outTarget(i);
+						if (distance[u] < 0) {
+							distance[u] = distance[v] + 1;
+							queue[tail++] = u;
+							if (distance[u] > distance[last] || u < last) {
+								// u is never closer than last, so this keeps the smallest of the farthest
+								last = u;
+							}
+						}
+					}
+				}
+				eccentricities[source] = distance[last];
+				if (farthest != null) {
+					farthest[source] = last;
+				}
+				for (int i = 0; i < tail; i++) {
+					distance[queue[i]] = -1;
+				}
+			}
+		}
 	}
 
+	/**
+	 * The longest shortest path between two vertices of the same component, ignoring edge directions.
+	 */
 	public double getDiameterUndirected() {
-		FloydWarshallShortestPaths<String, DefaultEdge> fw = new FloydWarshallShortestPaths<>(this.simpleGraph);
-		return fw.getDiameter();
+		return getDiameterBounds(getCsrGraph(), Integer.MAX_VALUE).getLower();
 	}
 
-	public double getDiameterUndirected(Graph<String, DefaultEdge> graph) {
-		FloydWarshallShortestPaths<String, DefaultEdge> fw = new FloydWarshallShortestPaths<>(graph);
-		return fw.getDiameter();
+	public double getDiameterUndirected(Graph<String, Edge> graph) {
+		DirectedGraph<String, Edge> directed = new DirectedPseudograph<>(Edge.class);
+		Graphs.addAllVertices(directed, graph.vertexSet());
+		for (Edge e : graph.edgeSet()) {
+			directed.addEdge(graph.getEdgeSource(e), graph.getEdgeTarget(e), new Edge());
+		}
+		return getDiameterBounds(new CsrGraph(directed), Integer.MAX_VALUE).getLower();
 	}
 
-	public <V, E> GraphPath<String, DefaultEdge> diameterPath() {
-		DijkstraShortestPath<String, DefaultEdge> d;
-		if (!isConnected()) return null;
-		GraphPath<String, DefaultEdge> longestPath = null;
-		for (String v : this.vertices) {
-			for (String u : this.vertices) {
-				if (v != u) {
-					d = new DijkstraShortestPath<>(this.graph, v, u);
-					GraphPath<String, DefaultEdge> currentPath = d.getPath();
-					if (currentPath != null && (longestPath == null || longestPath.getEdgeList().size() < currentPath.getEdgeList().size())) {
-						longestPath = currentPath;
+	/**
+	 * Bounds the undirected diameter with at most maxSweeps breadth first searches per component.
+	 * @see #getDiameterBounds(CsrGraph, int)
+	 */
+	public DiameterBounds getDiameterBounds(int maxSweeps) {
+		return getDiameterBounds(getCsrGraph(), maxSweeps);
+	}
+
+	/**
+	 * Bounds the longest shortest path between two vertices of the same component, ignoring edge directions.
+	 * Components that can't be longer than the lower bound found so far are skipped. For the others, a double
+	 * sweep from the vertex of highest degree gives a lower bound and a central vertex u, then the eccentricities
+	 * of the vertices are computed from the farthest from u inwards (iFUB). Once all vertices at distance i or
+	 * more from u are done, the diameter is at most 2(i - 1) or one of their eccentricities. In practice this
+	 * ends after a few searches; if maxSweeps searches are not enough, the bounds so far are returned.
+	 * @param maxSweeps searches per component, Integer.MAX_VALUE for the exact diameter
+	 */
+	public static DiameterBounds getDiameterBounds(CsrGraph csr, int maxSweeps) {
+		Validate.isTrue(maxSweeps >= 3, "maxSweeps must be at least 3");
+		int n = csr.getVertexCount();
+		int[] queue = new int[n];
+		int[] distance = new int[n];
+		int[] parents = new int[n];
+		int[] order = new int[n];
+		int[] levels = new int[n];
+		Arrays.fill(distance, -1);
+		BitSet seen = new BitSet(n);
+		int lower = 0;
+		int upper = 0;
+		for (int v = seen.nextClearBit(0); v < n; v = seen.nextClearBit(v + 1)) {
+			int size = breadthFirstSearch(csr, v, queue, seen);
+			if (size - 1 <= lower) {
+				continue;
+			}
+			int start = queue[0];
+			for (int i = 1; i < size; i++) {
+				if (csr.neighbourEnd(queue[i]) - csr.neighbourStart(queue[i]) > csr.neighbourEnd(start) - csr.neighbourStart(start)) {
+					start = queue[i];
+				}
+			}
+
+			// double sweep, the middle of the path found is a good center
+			int a = sweep(csr, start, queue, distance, null);
+			clear(queue, distance, size);
+			int b = sweep(csr, a, queue, distance, parents);
+			int componentLower = distance[b];
+			clear(queue, distance, size);
+			int u = b;
+			for (int i = 0; i < componentLower / 2; i++) {
+				u = parents[u];
+			}
+			sweep(csr, u, queue, distance, null);
+			for (int i = 0; i < size; i++) {
+				order[i] = queue[i];
+				levels[i] = distance[queue[i]];
+				distance[queue[i]] = -1;
+			}
+			int level = levels[size - 1];
+			componentLower = Math.max(componentLower, level);
+			int componentUpper = Math.min(2 * level, size - 1);
+			int sweeps = 3;
+
+			for (int k = size - 1; componentLower < componentUpper && sweeps < maxSweeps; k--) {
+				int far = sweep(csr, order[k], queue, distance, null);
+				componentLower = Math.max(componentLower, distance[far]);
+				clear(queue, distance, size);
+				sweeps++;
+				if (k == 0 || levels[k - 1] < level) {
+					// all eccentricities of this level are known
+					componentUpper = Math.min(componentUpper, Math.max(componentLower, 2 * (level - 1)));
+					level--;
+				}
+			}
+			lower = Math.max(lower, componentLower);
+			upper = Math.max(upper, componentUpper);
+		}
+		return new DiameterBounds(lower, Math.max(lower, upper));
+	}
+
+	/**
+	 * Breadth first search ignoring edge directions that leaves the distances from start in distance, which
+	 * must be -1 for the component of start before.
+	 * @param parents receives the predecessor of each vertex on a shortest path from start, if not null
+	 * @return the last vertex reached, one of the farthest from start
+	 */
+	private static int sweep(CsrGraph csr, int start, int[] queue, int[] distance, int[] parents) {
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = start;
+		distance[start] = 0;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+				int u = csr.neighbour(i);
+				if (distance[u] < 0) {
+					distance[u] = distance[v] + 1;
+					if (parents != null) {
+						parents[u] = v;
 					}
+					queue[tail++] = u;
+				}
+			}
+		}
+		return queue[tail - 1];
+	}
+
+	private static void clear(int[] queue, int[] distance, int size) {
+		for (int i = 0; i < size; i++) {
+			distance[queue[i]] = -1;
+		}
+	}
+
+	/**
+	 * A longest shortest path along the edge directions, between the first pair of vertices in vertex order
+	 * that is that far apart. Null if the graph is not connected or has no edges.
+	 */
+	public <V, E> GraphPath<String, Edge> diameterPath() {
+		if (!isConnected()) return null;
+		CsrGraph csr = getCsrGraph();
+		int n = csr.getVertexCount();
+		int[] eccentricities = new int[n];
+		int[] farthest = new int[n];
+		new EccentricityTask(csr, 0, n, eccentricities, farthest).invoke();
+		int source = 0;
+		for (int v = 1; v < n; v++) {
+			if (eccentricities[v] > eccentricities[source]) {
+				source = v;
+			}
+		}
+		if (eccentricities[source] == 0) {
+			return null;
+		}
+
+		int[] parents = new int[n];
+		Arrays.fill(parents, -1);
+		int[] queue = new int[n];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = source;
+		parents[source] = source;
+		while (head < tail && parents[farthest[source]] < 0) {
+			int v = queue[head++];
+			for (int i = csr.outStart(v); i < csr.outEnd(v); i++) {
+				int u = csr.outTarget(i);
+				if (parents[u] < 0) {
+					parents[u] = v;
+					queue[tail++] = u;
 				}
 			}
 		}
-		return longestPath;
+		LinkedList<Edge> path = new LinkedList<>();
+		for (int v = farthest[source]; v != source; v = parents[v]) {
+			path.addFirst(this.graph.getEdge(csr.getVertex(parents[v]), csr.getVertex(v)));
+		}
+		return new GraphPathImpl<>(this.graph, csr.getVertex(source), csr.getVertex(farthest[source]), path, path.size());
 	}
 
+	/**
+	 * Returns the weakly connected components, ordered by their first vertex.
+	 */
 	public List<Set<String>> getConnectedSets() {
-		return this.connectivity.connectedSets();
+		CsrGraph csr = getCsrGraph();
+		int[] components = getConnectedComponents();
+		List<Set<String>> sets = new ArrayList<>();
+		for (int v = 0; v < components.length; v++) {
+			if (components[v] == sets.size()) {
+				sets.add(new HashSet<String>());
+			}
+			sets.get(components[v]).add(csr.getVertex(v));
+		}
+		return sets;
+	}
+
+	/**
+	 * Numbers the weakly connected components in the order of their first vertex. Large graphs are split
+	 * between all cores, each thread unions the vertices of its range with their neighbours in a
+	 * {@link ConcurrentUnionFind}.
+	 * @return the component of each vertex index of {@link #getCsrGraph()}
+	 */
+	public int[] getConnectedComponents() {
+		int n = getCsrGraph().getVertexCount();
+		return getConnectedComponents(n < MIN_VERTICES_PER_THREAD * 2 ? 1 : Math.min(Runtime.getRuntime().availableProcessors(), n / MIN_VERTICES_PER_THREAD));
+	}
+
+	/**
+	 * Like {@link #getConnectedComponents()} with the given number of threads.
+	 */
+	public int[] getConnectedComponents(int threads) {
+		Validate.isTrue(threads > 0, "threads must be positive");
+		final CsrGraph csr = getCsrGraph();
+		final int n = csr.getVertexCount();
+		final ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+		if (threads == 1) {
+			unionNeighbours(csr, sets, 0, n);
+			return sets.toSetIds();
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			// more ranges than threads, so a range with many edges doesn't hold up the others
+			int ranges = threads * 4;
+			for (int r = 0; r < ranges; r++) {
+				final int from = (int) ((long) n * r / ranges);
+				final int to = (int) ((long) n * (r + 1) / ranges);
+				tasks.add(pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						unionNeighbours(csr, sets, from, to);
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		return sets.toSetIds();
+	}
+
+	private static void unionNeighbours(CsrGraph csr, ConcurrentUnionFind sets, int from, int to) {
+		for (int v = from; v < to; v++) {
+			for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+				int u = csr.neighbour(i);
+				// each edge is listed at both ends
+				if (u > v) {
+					sets.union(v, u);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Counts the vertices of each component numbered by {@link #getConnectedComponents()}, entries of -1
+	 * are no vertices and skipped.
+	 */
+	public static int[] getComponentSizes(int[] components) {
+		int count = 0;
+		for (int component : components) {
+			count = Math.max(count, component + 1);
+		}
+		int[] sizes = new int[count];
+		for (int component : components) {
+			if (component != -1) {
+				sizes[component]++;
+			}
+		}
+		return sizes;
+	}
+
+	/**
+	 * Numbers the weakly connected components of a graph on disk in the order of their first vertex.
+	 * Only the queue and the result, one int per id, are held in memory.
+	 * @return the component of each id, -1 for ids that are no vertex
+	 */
+	public static int[] getConnectedComponents(DiskCsrGraph csr) {
+		int[] components = new int[csr.getIdCount()];
+		Arrays.fill(components, -1);
+		int[] queue = new int[csr.getIdCount()];
+		int count = 0;
+		for (int v = csr.nextVertex(0); v >= 0; v = csr.nextVertex(v + 1)) {
+			if (components[v] != -1) {
+				continue;
+			}
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = v;
+			components[v] = count;
+			while (head < tail) {
+				int w = queue[head++];
+				for (long i = csr.neighbourStart(w); i < csr.neighbourEnd(w); i++) {
+					int u = csr.neighbour(i);
+					if (components[u] == -1) {
+						components[u] = count;
+						queue[tail++] = u;
+					}
+				}
+			}
+			count++;
+		}
+		return components;
+	}
+
+	/**
+	 * Returns the weakly connected components of a graph on disk, ordered by their first vertex.
+	 */
+	public static List<Set<String>> getConnectedSets(DiskCsrGraph csr) {
+		int[] components = getConnectedComponents(csr);
+		List<Set<String>> sets = new ArrayList<>();
+		for (int v = 0; v < components.length; v++) {
+			int component = components[v];
+			if (component == -1) {
+				continue;
+			}
+			if (component == sets.size()) {
+				sets.add(new HashSet<String>());
+			}
+			sets.get(component).add(csr.getVertex(v));
+		}
+		return sets;
+	}
+
+	/**
+	 * Like {@link #createSubGraphFeatures(Collection)} for the components numbered by
+	 * {@link #getConnectedComponents()}, without a set of vertices per component.
+	 */
+	public List<GraphFeatures> createSubGraphFeatures(int[] components) {
+		CsrGraph csr = getCsrGraph();
+		List<DirectedGraph<String, Edge>> subgraphs = new ArrayList<>();
+		for (int v = 0; v < components.length; v++) {
+			if (components[v] == subgraphs.size()) {
+				subgraphs.add(new DefaultDirectedGraph<String, Edge>(Edge.class));
+			}
+			subgraphs.get(components[v]).addVertex(csr.getVertex(v));
+		}
+		for (int v = 0; v < components.length; v++) {
+			String vertex = csr.getVertex(v);
+			DirectedGraph<String, Edge> subgraph = subgraphs.get(components[v]);
+			for (Edge edge : graph.outgoingEdgesOf(vertex)) {
+				subgraph.addEdge(vertex, edge.getTarget(), edge);
+			}
+		}
+		List<GraphFeatures> subgraphFeatures = new ArrayList<>();
+		for (int i = 0; i < subgraphs.size(); i++) {
+			DirectedGraph<String, Edge> subgraph = subgraphs.get(i);
+			GraphFeatures features = new GraphFeatures("subgraph" + i, subgraph, GraphUtils.toSimpleGraph(subgraph));
+			subgraphFeatures.add(features);
+		}
+		Collections.sort(subgraphFeatures, new Comparator<GraphFeatures>() {
+			@Override
+			public int compare(GraphFeatures g1, GraphFeatures g2) {
+				return Integer.compare(g1.getVertexCount(), g2.getVertexCount());
+			}
+		});
+		return subgraphFeatures;
 	}
 
 	/**
@@ -113,23 +606,20 @@ public class GraphFeatures {
 		List<GraphFeatures> subgraphFeatures = new ArrayList<>();
 		int i = 0;
 		for (Set<String> set : sets) {
-			DirectedGraph<String, DefaultEdge> subgraph = new DefaultDirectedGraph<>(DefaultEdge.class);
-			SimpleGraph<String, DefaultEdge> simpleSubgraph = new SimpleGraph<>(DefaultEdge.class);
+			DirectedGraph<String, Edge> subgraph = new DefaultDirectedGraph<>(Edge.class);
 			for (String vertex : set) {
 				subgraph.addVertex(vertex);
-				simpleSubgraph.addVertex(vertex);
 			}
 			for (String vertex : set) {
-				Set<DefaultEdge> edges = graph.outgoingEdgesOf(vertex);
-				for (DefaultEdge edge : edges) {
-					String target = (String) edge.getTarget();
+				Set<Edge> edges = graph.outgoingEdgesOf(vertex);
+				for (Edge edge : edges) {
+					String target = edge.getTarget();
 					if (set.contains(target)) {
 						subgraph.addEdge(vertex, target, edge);
-						simpleSubgraph.addEdge(vertex, target, edge);
 					}
 				}
 			}
-			subgraphFeatures.add(new GraphFeatures("subgraph" + i, subgraph, simpleSubgraph));
+			subgraphFeatures.add(new GraphFeatures("subgraph" + i, subgraph, GraphUtils.toSimpleGraph(subgraph)));
 			i++;
 		}
 		Collections.sort(subgraphFeatures, new Comparator<GraphFeatures>() {
@@ -142,35 +632,214 @@ public class GraphFeatures {
 		return subgraphFeatures;
 	}
 
+	/**
+	 * Returns the strongly connected components, ordered by their first vertex.
+	 */
 	public List<Set<String>> getStronglyConnectedSets() {
-		StrongConnectivityInspector<String, DefaultEdge> sci = new StrongConnectivityInspector<>(this.graph);
-		return sci.stronglyConnectedSets();
+		CsrGraph csr = getCsrGraph();
+		int[] components = getStronglyConnectedComponents();
+		List<Set<String>> sets = new ArrayList<>();
+		for (int v = 0; v < components.length; v++) {
+			if (components[v] == sets.size()) {
+				sets.add(new HashSet<String>());
+			}
+			sets.get(components[v]).add(csr.getVertex(v));
+		}
+		return sets;
+	}
+
+	/**
+	 * Numbers the strongly connected components in the order of their first vertex. Uses Tarjan's algorithm
+	 * with explicit stacks instead of recursion, so long paths can't overflow the call stack.
+	 * @return the component of each vertex index of {@link #getCsrGraph()}
+	 */
+	public int[] getStronglyConnectedComponents() {
+		CsrGraph csr = getCsrGraph();
+		int n = csr.getVertexCount();
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] components = new int[n];
+		int[] stack = new int[n]; // vertices whose component is not known yet
+		int[] callStack = new int[n];
+		int[] nextEdge = new int[n]; // position in the out-adjacency of the vertex on the call stack
+		BitSet onStack = new BitSet(n);
+		Arrays.fill(index, -1);
+		int counter = 0;
+		int count = 0;
+		int top = 0;
+		for (int start = 0; start < n; start++) {
+			if (index[start] != -1) {
+				continue;
+			}
+			int depth = 0;
+			index[start] = low[start] = counter++;
+			stack[top++] = start;
+			onStack.set(start);
+			callStack[depth] = start;
+			nextEdge[depth++] = csr.outStart(start);
+			while (depth > 0) {
+				int v = callStack[depth - 1];
+				if (nextEdge[depth - 1] < csr.outEnd(v)) {
+					int w = csr.outTarget(nextEdge[depth - 1]++);
+					if (index[w] == -1) {
+						index[w] = low[w] = counter++;
+						stack[top++] = w;
+						onStack.set(w);
+						callStack[depth] = w;
+						nextEdge[depth++] = csr.outStart(w);
+					} else if (onStack.get(w)) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+				depth--;
+				if (low[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--top];
+						onStack.clear(w);
+						components[w] = count;
+					} while (w != v);
+					count++;
+				}
+				if (depth > 0) {
+					int parent = callStack[depth - 1];
+					low[parent] = Math.min(low[parent], low[v]);
+				}
+			}
+		}
+		// Tarjan finds the components in reverse topological order, renumber them by their first vertex
+		int[] numbers = new int[count];
+		Arrays.fill(numbers, -1);
+		int next = 0;
+		for (int v = 0; v < n; v++) {
+			if (numbers[components[v]] == -1) {
+				numbers[components[v]] = next++;
+			}
+			components[v] = numbers[components[v]];
+		}
+		return components;
 	}
 
 	public String getType() {
 		return this.type;
 	}
 
+	/**
+	 * The vertices of each block in vertex order, see {@link BiconnectedComponents}. Null if the graph is not
+	 * connected.
+	 */
 	public Set<Set<String>> getBiConnectedSets() {
 		if (!isConnected()) {
 			return null;
 		}
-		BiconnectivityInspector<String, DefaultEdge> bici = new BiconnectivityInspector<>(this.undirectedG);
-		return bici.getBiconnectedVertexComponents();
+		CsrGraph csr = getCsrGraph();
+		BiconnectedComponents components = getBiconnectedComponents();
+		List<Set<String>> blocks = new ArrayList<>(components.getBlockCount());
+		for (int block = 0; block < components.getBlockCount(); block++) {
+			blocks.add(new LinkedHashSet<String>());
+		}
+		for (int v = 0; v < csr.getVertexCount(); v++) {
+			if (components.getSingletonBlock(v) >= 0) {
+				blocks.get(components.getSingletonBlock(v)).add(csr.getVertex(v));
+			}
+			for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+				if (components.getSlotBlock(i) >= 0) {
+					blocks.get(components.getSlotBlock(i)).add(csr.getVertex(v));
+				}
+			}
+		}
+		return new HashSet<>(blocks);
+	}
+
+	public BiconnectedComponents getBiconnectedComponents() {
+		return new BiconnectedComponents(getCsrGraph());
 	}
 
+	/**
+	 * Checks for directed cycles by repeatedly removing vertices without incoming edges (Kahn's algorithm),
+	 * the graph is cyclic if some vertices remain.
+	 */
 	public boolean containsCycles() {
-		CycleDetector<String, DefaultEdge> cycleDetector = new CycleDetector<>(this.graph);
-		this.containsCycle = cycleDetector.detectCycles();
+		CsrGraph csr = getCsrGraph();
+		int n = csr.getVertexCount();
+		int[] indegrees = new int[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		for (int v = 0; v < n; v++) {
+			indegrees[v] = csr.inDegree(v);
+			if (indegrees[v] == 0) {
+				queue[tail++] = v;
+			}
+		}
+		for (int head = 0; head < tail; head++) {
+			int v = queue[head];
+			for (int i = csr.outStart(v); i < csr.outEnd(v); i++) {
+				int u = csr.outTarget(i);
+				if (--indegrees[u] == 0) {
+					queue[tail++] = u;
+				}
+			}
+		}
+		this.containsCycle = tail < n;
 		return this.containsCycle;
 	}
 
-	public Set<DefaultEdge> incomingEdgesOf(String v) {
+	public Set<Edge> incomingEdgesOf(String v) {
 		return this.graph.incomingEdgesOf(v);
 	}
 
 	public boolean isBipartite() {
-		return GraphTests.isBipartite(this.undirectedG);
+		if (this.isBipartite == null) {
+			int[] components = getConnectedComponents();
+			this.isBipartite = getBipartiteComponents(components).cardinality() == getComponentSizes(components).length;
+		}
+		return this.isBipartite;
+	}
+
+	/**
+	 * Two-colours every component with one sweep over the vertices, starting a breadth first search at the
+	 * first vertex of each component. A component is bipartite unless an edge joins two vertices of the same
+	 * colour, a self loop included. Edge directions are ignored.
+	 * @param components the component of each vertex, numbered by first vertex as by {@link #getConnectedComponents()}
+	 * @return the bipartite components
+	 */
+	public BitSet getBipartiteComponents(int[] components) {
+		CsrGraph csr = getCsrGraph();
+		int n = csr.getVertexCount();
+		Validate.isTrue(components.length == n, "components must have one entry per vertex");
+		BitSet seen = new BitSet(n);
+		BitSet colours = new BitSet(n);
+		BitSet bipartite = new BitSet();
+		int[] queue = new int[n];
+		for (int start = 0; start < n; start++) {
+			if (seen.get(start)) {
+				continue;
+			}
+			boolean twoColoured = true;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = start;
+			seen.set(start);
+			while (head < tail) {
+				int v = queue[head++];
+				boolean colour = colours.get(v);
+				for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+					int u = csr.neighbour(i);
+					if (!seen.get(u)) {
+						seen.set(u);
+						colours.set(u, !colour);
+						queue[tail++] = u;
+					} else if (colours.get(u) == colour) {
+						twoColoured = false;
+					}
+				}
+			}
+			if (twoColoured) {
+				bipartite.set(components[start]);
+			}
+		}
+		return bipartite;
 	}
 	
 	public boolean isPathGraph() {
@@ -186,7 +855,7 @@ public class GraphFeatures {
 		return this.isPathGraph;
 	}
 
-	public boolean isPath(Graph<String, DefaultEdge> graph) {
+	public boolean isPath(Graph<String, Edge> graph) {
 		double diameter = getDiameterUndirected(graph);
 		if (graph.vertexSet().size() == diameter + 1) {
 			this.type = "Path";
@@ -200,8 +869,9 @@ public class GraphFeatures {
 		if (!isPathGraph()) {
 			return false;
 		}
-		for (String v : this.vertices) {
-			if ( this.graph.inDegreeOf(v) > 1) {
+		CsrGraph csr = getCsrGraph();
+		for (int v = 0; v < csr.getVertexCount(); v++) {
+			if (csr.inDegree(v) > 1) {
 				return false;
 			}
 		}
@@ -209,8 +879,9 @@ public class GraphFeatures {
 	}
 	
 	public boolean isOutboundStarGraph() {
-		for (String v : this.vertices) {
-			if ((this.graph.inDegreeOf(v) == 0) && (this.graph.outDegreeOf(v) == this.getEdgeCount())) {
+		CsrGraph csr = getCsrGraph();
+		for (int v = 0; v < csr.getVertexCount(); v++) {
+			if ((csr.inDegree(v) == 0) && (csr.outDegree(v) == this.getEdgeCount())) {
 				this.type = "Outbound Star";
 				return true;
 			}
@@ -219,8 +890,9 @@ public class GraphFeatures {
 	}
 
 	public boolean isInboundStarGraph() {
-		for (String v : this.vertices) {
-			if ((this.graph.inDegreeOf(v) == this.getEdgeCount()) && (this.graph.outDegreeOf(v) == 0)) {
+		CsrGraph csr = getCsrGraph();
+		for (int v = 0; v < csr.getVertexCount(); v++) {
+			if ((csr.inDegree(v) == this.getEdgeCount()) && (csr.outDegree(v) == 0)) {
 				this.type = "Inbound Star";
 				return true;
 			}
@@ -263,7 +935,7 @@ public class GraphFeatures {
 		return this.isTree;
 	}
 
-	public boolean isTree(UndirectedGraph<String, DefaultEdge> g, boolean overwriteCheck) {
+	public boolean isTree(UndirectedGraph<String, Edge> g, boolean overwriteCheck) {
 		boolean isTree = GraphTests.isTree(g);
 		if (isTree) {
 			if (overwriteCheck) {
@@ -282,9 +954,9 @@ public class GraphFeatures {
 			return false;
 		}
 	    
-		UndirectedGraph<String, DefaultEdge> tempG = new SimpleGraph<>(DefaultEdge.class);
+		UndirectedGraph<String, Edge> tempG = new SimpleGraph<>(Edge.class);
 
-		GraphIterator<String, DefaultEdge> iterator = new DepthFirstIterator<>(this.simpleGraph);
+		GraphIterator<String, Edge> iterator = new DepthFirstIterator<>(this.simpleGraph);
 		iterator.addTraversalListener(new CaterpillarListener(this.simpleGraph, this));
 		while (iterator.hasNext()) {
 			iterator.next();
@@ -295,7 +967,7 @@ public class GraphFeatures {
 				tempG.addVertex(v);
 			}
 		}
-		for (DefaultEdge e : this.edges) {
+		for (Edge e : this.edges) {
 			if (!edgesDeletedTemp.contains(e) && tempG.containsVertex(e.getSource().toString()) && tempG.containsVertex(e.getTarget().toString())) {
 				tempG.addEdge(e.getSource().toString(), e.getTarget().toString());
 			}
@@ -309,10 +981,10 @@ public class GraphFeatures {
         return true;
 	}
 
-	public boolean isCaterpillar(SimpleGraph<String, DefaultEdge> graph) {
-		UndirectedGraph<String, DefaultEdge> tempG = new SimpleGraph<>(DefaultEdge.class);
+	public boolean isCaterpillar(SimpleGraph<String, Edge> graph) {
+		UndirectedGraph<String, Edge> tempG = new SimpleGraph<>(Edge.class);
 
-		GraphIterator<String, DefaultEdge> iterator = new DepthFirstIterator<>(graph);
+		GraphIterator<String, Edge> iterator = new DepthFirstIterator<>(graph);
 		iterator.addTraversalListener(new CaterpillarListener(graph, this));
 		while (iterator.hasNext()) {
 			iterator.next();
@@ -323,7 +995,7 @@ public class GraphFeatures {
 				tempG.addVertex(v);
 			}
 		}
-		for (DefaultEdge e : graph.edgeSet()) {
+		for (Edge e : graph.edgeSet()) {
 			if (!edgesDeletedTemp.contains(e)) {
 				if ((e.getSource() != null) && (e.getTarget() != null)) {
 					tempG.addEdge(e.getSource().toString(), e.getTarget().toString());
@@ -344,9 +1016,9 @@ public class GraphFeatures {
 			return false;
 		}
 	    
-		SimpleGraph<String, DefaultEdge> tempG = new SimpleGraph<>(DefaultEdge.class);
+		SimpleGraph<String, Edge> tempG = new SimpleGraph<>(Edge.class);
 
-		GraphIterator<String, DefaultEdge> iterator = new DepthFirstIterator<>(this.simpleGraph);
+		GraphIterator<String, Edge> iterator = new DepthFirstIterator<>(this.simpleGraph);
 		iterator.addTraversalListener(new CaterpillarListener(this.simpleGraph, this));
 		while (iterator.hasNext()) {
 			iterator.next();
@@ -357,7 +1029,7 @@ public class GraphFeatures {
 				tempG.addVertex(v);
 			}
 		}
-		for (DefaultEdge e : this.edges) {
+		for (Edge e : this.edges) {
 			if (!edgesDeletedTemp.contains(e)) {
 				tempG.addEdge(e.getSource().toString(), e.getTarget().toString());
 			}
@@ -370,80 +1042,117 @@ public class GraphFeatures {
         return true;
 	}
 
-	public List<Degree> getDegrees2() {
-		if (this.degrees2 == null) {
-			getDegrees();
-		}
-		return this.indegrees2;
-	}
-
-	public List<Integer> getDegrees() {
+	/**
+	 * Fills the degree, indegree, outdegree and edge count of every vertex in one pass.
+	 */
+	private void computeDegrees() {
 		if (this.degrees == null) {
-			this.degrees = new ArrayList<>();
-			this.degrees2 = new ArrayList<>();
-			for (String vertex : this.vertices) {
-				int d = this.graph.inDegreeOf(vertex) + this.graph.outDegreeOf(vertex);
-				this.degrees.add(d);
-				this.degrees2.add(new Degree(vertex, d));
+			CsrGraph csr = getCsrGraph();
+			int n = csr.getVertexCount();
+			DegreeSequence degrees = new DegreeSequence(n);
+			DegreeSequence indegrees = new DegreeSequence(n);
+			DegreeSequence outdegrees = new DegreeSequence(n);
+			DegreeSequence edgeCounts = new DegreeSequence(n);
+			for (int v = 0; v < n; v++) {
+				int in = csr.inDegree(v);
+				int out = csr.outDegree(v);
+				indegrees.set(v, in);
+				outdegrees.set(v, out);
+				degrees.set(v, in + out);
+				edgeCounts.set(v, csr.incidentEdgeCount(v));
 			}
+			this.indegrees = indegrees;
+			this.outdegrees = outdegrees;
+			this.edgeCounts = edgeCounts;
+			this.degrees = degrees;
 		}
+	}
+
+	/**
+	 * Indegree plus outdegree of each vertex index of {@link #getCsrGraph()}.
+	 */
+	public DegreeSequence getDegreeSequence() {
+		computeDegrees();
 		return this.degrees;
 	}
 
-	public List<Integer> getIndegrees() {
-		if (this.indegrees == null) {
-			this.indegrees = new ArrayList<>();
-			this.indegrees2 = new ArrayList<>();
-			for (String vertex : this.vertices) {
-				int d = this.graph.inDegreeOf(vertex);
-				this.indegrees.add(d);
-				this.indegrees2.add(new Degree(vertex, d));
-			}
-		}
+	public DegreeSequence getIndegreeSequence() {
+		computeDegrees();
 		return this.indegrees;
 	}
 
+	public DegreeSequence getOutdegreeSequence() {
+		computeDegrees();
+		return this.outdegrees;
+	}
+
+	/**
+	 * Number of distinct edges touching each vertex, a self loop is counted once.
+	 */
+	public DegreeSequence getEdgeCountSequence() {
+		computeDegrees();
+		return this.edgeCounts;
+	}
+
+	public DegreeHistogram getDegreeHistogram() {
+		return new DegreeHistogram(getDegreeSequence());
+	}
+
+	public DegreeHistogram getIndegreeHistogram() {
+		return new DegreeHistogram(getIndegreeSequence());
+	}
+
+	public DegreeHistogram getOutdegreeHistogram() {
+		return new DegreeHistogram(getOutdegreeSequence());
+	}
+
+	/**
+	 * Number of vertices per edge count, see {@link #getEdgeCountSequence()}.
+	 */
+	public DegreeHistogram getEdgeCountHistogram() {
+		return new DegreeHistogram(getEdgeCountSequence());
+	}
+
+	public List<Degree> getDegrees2() {
+		return toDegrees(getDegreeSequence());
+	}
+
+	public List<Integer> getDegrees() {
+		return getDegreeSequence().asList();
+	}
+
+	public List<Integer> getIndegrees() {
+		return getIndegreeSequence().asList();
+	}
+
 	public List<Degree> getIndegrees2() {
-		if (this.indegrees2 == null) {
-			getIndegrees();
-		}
-		return this.indegrees2;
+		return toDegrees(getIndegreeSequence());
 	}
 
     public double getAverageIndegree() {
-        if (this.indegrees == null) {
-            getIndegrees();
-        }
-        return CollectionUtils.average(this.indegrees);
+        return getIndegreeSequence().getAverage();
     }
 
 	public List<Integer> getOutdegrees() {
-		if (this.outdegrees == null) {
-			this.outdegrees = new ArrayList<>();
-			this.outdegrees2 = new ArrayList<>();
-			for (String vertex : this.vertices) {
-				int d = this.graph.outDegreeOf(vertex);
-				this.outdegrees.add(d);
-				this.outdegrees2.add(new Degree(vertex, d));
-			}
-		}
-		return this.outdegrees;
+		return getOutdegreeSequence().asList();
 	}
 
 
 	public List<Degree> getOutdegrees2() {
-		if (this.outdegrees2 == null) {
-			getOutdegrees();
-		}
-		return this.outdegrees2;
+		return toDegrees(getOutdegreeSequence());
 	}
 
-	public ArrayList<Integer> getEdgeCounts() {
-		ArrayList<Integer> edgeCounts = new ArrayList<>();
-		for (String vertex : this.vertices) {
-			edgeCounts.add(graph.edgesOf(vertex).size());
+	private List<Degree> toDegrees(DegreeSequence sequence) {
+		CsrGraph csr = getCsrGraph();
+		List<Degree> degrees = new ArrayList<>(sequence.size());
+		for (int v = 0; v < sequence.size(); v++) {
+			degrees.add(new Degree(csr.getVertex(v), sequence.get(v)));
 		}
-		return edgeCounts;
+		return degrees;
+	}
+
+	public List<Integer> getEdgeCounts() {
+		return getEdgeCountSequence().asList();
 	}
 
 	public int getVertexCount() {
@@ -466,81 +1175,66 @@ public class GraphFeatures {
 		return id;
 	}
 
-	public Set<DefaultEdge> getEdges() {
+	public Set<Edge> getEdges() {
 		return edges;
 	}
 
 
 	public List<Degree> maxOutDegrees(int count) {
-		if (outdegrees2 == null) {
-			getOutdegrees();
-		}
-		return CollectionUtils.maxValues(outdegrees2, count);
+		return maxDegrees(getOutdegreeSequence(), count);
 	}
 
 	public List<Degree> maxDegrees(int count) {
-		if (this.degrees2 == null) {
-			getDegrees();
-		}
-		if(this.degrees2.isEmpty()) {
-			return Collections.emptyList();
-		}
-		return CollectionUtils.maxValues(this.degrees2, count);
+		return maxDegrees(getDegreeSequence(), count);
 	}
 
 	public List<Degree> maxInDegrees(int count) {
-		if (indegrees2 == null) {
-			getIndegrees();
-		}
-		if(this.indegrees2.isEmpty()) {
-			return Collections.emptyList();
+		return maxDegrees(getIndegreeSequence(), count);
+	}
+
+	/**
+	 * The count highest degrees in ascending order.
+	 */
+	private List<Degree> maxDegrees(DegreeSequence sequence, int count) {
+		CsrGraph csr = getCsrGraph();
+		List<Degree> max = new ArrayList<>();
+		for (int v : sequence.top(count)) {
+			max.add(new Degree(csr.getVertex(v), sequence.get(v)));
 		}
-		return CollectionUtils.maxValues(indegrees2, count);
+		return max;
 	}
 
     public int getMaxIndegree() {
-        if (this.indegrees == null) {
-            getIndegrees();
-        }
-	    if(this.indegrees.isEmpty()) {
-		    return 0;
-	    }
-        return CollectionUtils.max(this.indegrees);
+        return getIndegreeSequence().getMax();
     }
 
     public int getMinIndegree() {
-        if (this.indegrees == null) {
-            getIndegrees();
-        }
-	    if(this.indegrees.isEmpty()) {
-		    return 0;
-	    }
-        return CollectionUtils.min(this.indegrees);
+        return getIndegreeSequence().getMin();
     }
 
-    public boolean checkColorIsomorphism(GraphFeatures target) {
-        SimpleGraph<String, DefaultEdge> targetSimpleGraph = target.getSimpleGraph();
+    public boolean checkColorIsomorphism(GraphFeatures target, Dataset dataset) {
+        UndirectedGraph<String, Edge> targetSimpleGraph = target.getSimpleGraph();
         for (String vertex : this.simpleGraph.vertexSet()) {
-            String classUri = Dataset.getClass(vertex);
+            String classUri = dataset.getClass(vertex);
             List<String> linkedVerticesClassUris = new ArrayList<>();
-            for (DefaultEdge edge : this.simpleGraph.edgesOf(vertex)) {
+            for (Edge edge : this.simpleGraph.edgesOf(vertex)) {
                 String linkedVertex = edge.getTarget().toString();
                 if (linkedVertex.equals(vertex)) {
                     linkedVertex = edge.getSource().toString();
                 }
-                linkedVerticesClassUris.add(Dataset.getClass(linkedVertex));
+                linkedVerticesClassUris.add(dataset.getClass(linkedVertex));
             }
             boolean foundCurrentVertexEquivalent = false;
             for (String targetVertex : targetSimpleGraph.vertexSet()) {
-                String targetClassUri = Dataset.getClass(vertex);
+                String targetClassUri = dataset.getClass(vertex);
                 if (!classUri.equals(targetClassUri)) continue;
                 List<String> targetLinkedVerticesClassUris = new ArrayList<>();
-                for (DefaultEdge edge : targetSimpleGraph.edgesOf(targetVertex)) {
+                for (Edge edge : targetSimpleGraph.edgesOf(targetVertex)) {
                     String linkedVertex = edge.getTarget().toString();
                     if (linkedVertex.equals(targetVertex)) {
                         linkedVertex = edge.getSource().toString();
                     }
-                    targetLinkedVerticesClassUris.add(Dataset.getClass(linkedVertex));
+                    targetLinkedVerticesClassUris.add(dataset.getClass(linkedVertex));
                 }
                 if (!linkedVerticesClassUris.equals(targetLinkedVerticesClassUris)) return false;
             }
@@ -551,31 +1245,28 @@ public class GraphFeatures {
 
 	public HashMap<Integer, Integer> getDegreeDistribution() {
 		HashMap<Integer, Integer> degreeCounts = new HashMap<>();
-		for (String vertex : this.graph.vertexSet()) {
-			Set<DefaultEdge> edges = this.graph.edgesOf(vertex);
-			if (degreeCounts.containsKey(edges.size())) {
-				int oldDegreeCount = degreeCounts.get(edges.size());
-				degreeCounts.put(edges.size(), oldDegreeCount + 1);
-			} else {
-				degreeCounts.put(edges.size(), 1);
+		DegreeHistogram histogram = getEdgeCountHistogram();
+		for (int edges = 0; edges <= histogram.getMaxDegree(); edges++) {
+			if (histogram.getCount(edges) > 0) {
+				degreeCounts.put(edges, histogram.getCount(edges));
 			}
 		}
 		return degreeCounts;
 	}
 
-	class CaterpillarListener extends TraversalListenerAdapter<String, DefaultEdge> {
+	class CaterpillarListener extends TraversalListenerAdapter<String, Edge> {
 		private String lastSeenVertex;
-		private DefaultEdge lastSeenEdge;
-		private UndirectedGraph<String, DefaultEdge> g;
+		private Edge lastSeenEdge;
+		private UndirectedGraph<String, Edge> g;
 		private GraphFeatures gF;
 		
-		public CaterpillarListener(UndirectedGraph<String, DefaultEdge> g, GraphFeatures gF) {
+		public CaterpillarListener(UndirectedGraph<String, Edge> g, GraphFeatures gF) {
 			this.g = g;
 			this.gF = gF;
 		}
 		
 		@Override
-		public void edgeTraversed(EdgeTraversalEvent<String, DefaultEdge> e) {
+		public void edgeTraversed(EdgeTraversalEvent<String, Edge> e) {
 			lastSeenEdge = e.getEdge();
 		}
 
@@ -594,16 +1285,16 @@ public class GraphFeatures {
 		}
 	}
 	
-	class TreeDepthFirstIterator extends DepthFirstIterator<String, DefaultEdge> {
+	class TreeDepthFirstIterator extends DepthFirstIterator<String, Edge> {
 		private List<String> alreadySeenVertices = new ArrayList<>();
 		private GraphFeatures graphFeature;
 		
-		public TreeDepthFirstIterator(Graph<String, DefaultEdge> g, GraphFeatures graphFeature) {
+		public TreeDepthFirstIterator(Graph<String, Edge> g, GraphFeatures graphFeature) {
 			super(g);
 			this.graphFeature = graphFeature;
 		}
 		
-		protected void encounterVertexAgain(String vertex,DefaultEdge edge) {
+		protected void encounterVertexAgain(String vertex,Edge edge) {
 			if (this.alreadySeenVertices.contains(vertex)) {
 				this.graphFeature.containsCycle();
 			}
@@ -611,7 +1302,7 @@ public class GraphFeatures {
 		}
 	}
 	
-	private void addForDeletion(String v, DefaultEdge e) {
+	private void addForDeletion(String v, Edge e) {
 		this.edgesDeletedTemp.add(e);
 		this.verticesDeletedTemp.add(v);
 	}
@@ -620,7 +1311,7 @@ public class GraphFeatures {
 		this.containsCycle = true;
 	}
 
-	public Set<DefaultEdge> outgoingEdgesOf(String v) {
+	public Set<Edge> outgoingEdgesOf(String v) {
 		return this.graph.outgoingEdgesOf(v);
 	}
 
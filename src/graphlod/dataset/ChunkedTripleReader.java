@@ -0,0 +1,208 @@
+package graphlod.dataset;
+
+import com.google.common.io.ByteStreams;
+import org.semanticweb.yars.nx.Literal;
+import org.semanticweb.yars.nx.Node;
+import org.semanticweb.yars.nx.parser.NxParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Reads N-Triples files with several threads.
+ * The files are cut into line-aligned chunks. Worker threads parse and classify the triples of a chunk,
+ * the calling thread merges the chunks into the dataset in input order. One pool of workers serves all
+ * calls to {@link #read} until the reader is closed.
+ */
+class ChunkedTripleReader implements Closeable {
+    private static Logger logger = LoggerFactory.getLogger(ChunkedTripleReader.class);
+
+    private static final long MIN_CHUNK_SIZE = 64 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Dataset dataset;
+    private final int threads;
+    private final boolean mapped;
+    private final ExecutorService pool;
+
+    ChunkedTripleReader(Dataset dataset, int threads, boolean mapped) {
+        this.dataset = dataset;
+        this.threads = threads;
+        this.mapped = mapped;
+        this.pool = Executors.newFixedThreadPool(threads);
+    }
+
+    private static class Chunk {
+        final String file;
+        final long start;
+        final long end;
+        final boolean lastOfFile;
+
+        Chunk(String file, long start, long end, boolean lastOfFile) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.lastOfFile = lastOfFile;
+        }
+    }
+
+    /**
+     * The accepted triples of a chunk together with their classification.
+     */
+    private static class ParsedChunk {
+        final Chunk chunk;
+        final List<String> triples = new ArrayList<>();
+        int[] kinds = new int[256];
+        int size;
+
+        ParsedChunk(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        void add(String subjectUri, String propertyUri, String objectUri, int kind) {
+            triples.add(subjectUri);
+            triples.add(propertyUri);
+            triples.add(objectUri);
+            if (size == kinds.length) {
+                kinds = Arrays.copyOf(kinds, size * 2);
+            }
+            kinds[size++] = kind;
+        }
+    }
+
+    /**
+     * Reads the files in the given order, the chunks of all files share the workers.
+     */
+    void read(Collection<String> files) {
+        List<Chunk> chunks = split(files);
+        logger.info("Reading " + files.size() + " files in " + chunks.size() + " chunks with " + threads + " threads");
+
+        try {
+            Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+            Iterator<Chunk> iterator = chunks.iterator();
+            while (iterator.hasNext() || !pending.isEmpty()) {
+                // keep a bounded number of chunks in flight, so parsed triples can't pile up in memory
+                while (iterator.hasNext() && pending.size() < threads * 2) {
+                    final Chunk chunk = iterator.next();
+                    pending.add(pool.submit(new Callable<ParsedChunk>() {
+                        @Override
+                        public ParsedChunk call() throws IOException {
+                            return parse(chunk);
+                        }
+                    }));
+                }
+                merge(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private List<Chunk> split(Collection<String> files) {
+        long totalSize = 0;
+        for (String file : files) {
+            totalSize += new File(file).length();
+        }
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, totalSize / (threads * CHUNKS_PER_THREAD)));
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (String file : files) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                long length = raf.length();
+                long start = 0;
+                while (start < length) {
+                    long end = nextLineStart(raf, Math.min(start + chunkSize, length));
+                    chunks.add(new Chunk(file, start, end, end >= length));
+                    start = end;
+                }
+                if (length == 0) {
+                    chunks.add(new Chunk(file, 0, 0, true));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the offset of the first line starting at or after the given position.
+     */
+    private static long nextLineStart(RandomAccessFile raf, long position) throws IOException {
+        long length = raf.length();
+        if (position >= length || position == 0) {
+            return position;
+        }
+        raf.seek(position - 1);
+        byte[] buffer = new byte[8192];
+        long offset = position - 1;
+        int read;
+        while ((read = raf.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return length;
+    }
+
+    private ParsedChunk parse(Chunk chunk) throws IOException {
+        final ParsedChunk parsed = new ParsedChunk(chunk);
+        if (chunk.start == chunk.end) {
+            return parsed;
+        }
+        if (mapped) {
+            // the dictionary belongs to the merging thread, so every uri is decoded here
+            new MappedTripleReader(dataset, null).read(chunk.file, chunk.start, chunk.end, new MappedTripleReader.TripleHandler() {
+                @Override
+                public void triple(String subjectUri, String propertyUri, String objectUri, int kind) {
+                    parsed.add(subjectUri, propertyUri, objectUri, kind);
+                }
+            });
+            return parsed;
+        }
+        try (FileInputStream in = new FileInputStream(chunk.file)) {
+            in.getChannel().position(chunk.start);
+            InputStream limited = dataset.getIngestMetrics().count(ByteStreams.limit(in, chunk.end - chunk.start));
+            NxParser nxp = new NxParser(new BufferedInputStream(limited));
+            while (nxp.hasNext()) {
+                Node[] nodes = nxp.next();
+                if (nodes.length != 3) {
+                    continue;
+                }
+                String subjectUri = nodes[0].toString();
+                String propertyUri = nodes[1].toString();
+                String objectUri = nodes[2].toString();
+                int kind = dataset.classifyTriple(subjectUri, propertyUri, objectUri, nodes[2] instanceof Literal);
+                if (kind != Dataset.TRIPLE_INVALID) {
+                    parsed.add(subjectUri, propertyUri, objectUri, kind);
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private void merge(ParsedChunk parsed) {
+        List<String> triples = parsed.triples;
+        for (int i = 0; i < parsed.size; i++) {
+            dataset.addTriple(triples.get(3 * i), triples.get(3 * i + 1), triples.get(3 * i + 2), parsed.kinds[i]);
+        }
+        if (parsed.chunk.lastOfFile) {
+            dataset.finishedFile(parsed.chunk.file);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package graphlod.dataset;
+
+import com.google.common.collect.Multimap;
+import org.apache.commons.lang3.Validate;
+
+import java.util.*;
+
+/**
+ * Ancestor index of the ontology classes of a dataset, built once after reading. Every class gets a bitset
+ * of its ancestors, including itself, so subsumption is a single lookup and common superclasses are found
+ * by intersecting two bitsets. The hierarchy may have several superclasses per class and even cycles.
+ * The depth of a class is its distance from a class without superclass, usually owl:Thing.
+ */
+public class ClassHierarchy {
+    private final UriDictionary ids = new UriDictionary();
+    private final BitSet[] ancestors;
+    private final int[] ancestorCounts;
+    private final int[] depths;
+
+    /**
+     * @param subclasses classes and their direct subclasses
+     */
+    ClassHierarchy(Collection<String> classes, Multimap<String, String> subclasses) {
+        // sorted, so ties between equally specific classes are always decided the same way
+        SortedSet<String> names = new TreeSet<>(classes);
+        names.addAll(subclasses.keySet());
+        names.addAll(subclasses.values());
+        for (String name : names) {
+            ids.encode(name);
+        }
+        int n = ids.size();
+
+        List<List<Integer>> parents = new ArrayList<>(n);
+        List<List<Integer>> children = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            parents.add(new ArrayList<Integer>());
+            children.add(new ArrayList<Integer>());
+        }
+        for (Map.Entry<String, String> entry : subclasses.entries()) {
+            int superclass = ids.getId(entry.getKey());
+            int subclass = ids.getId(entry.getValue());
+            if (superclass != subclass) {
+                parents.get(subclass).add(superclass);
+                children.get(superclass).add(subclass);
+            }
+        }
+
+        ancestors = new BitSet[n];
+        ancestorCounts = new int[n];
+        int[] stack = new int[n];
+        for (int c = 0; c < n; c++) {
+            // grows to the highest ancestor only, n bits per class would take O(n²) memory
+            BitSet seen = new BitSet();
+            int top = 0;
+            stack[top++] = c;
+            seen.set(c);
+            while (top > 0) {
+                int v = stack[--top];
+                for (int parent : parents.get(v)) {
+                    if (!seen.get(parent)) {
+                        seen.set(parent);
+                        stack[top++] = parent;
+                    }
+                }
+            }
+            ancestors[c] = seen;
+            ancestorCounts[c] = seen.cardinality();
+        }
+
+        depths = new int[n];
+        Arrays.fill(depths, -1);
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int c = 0; c < n; c++) {
+            if (parents.get(c).isEmpty()) {
+                depths[c] = 0;
+                queue[tail++] = c;
+            }
+        }
+        int head = 0;
+        for (int c = 0; c <= n; c++) {
+            while (head < tail) {
+                int v = queue[head++];
+                for (int child : children.get(v)) {
+                    if (depths[child] == -1) {
+                        depths[child] = depths[v] + 1;
+                        queue[tail++] = child;
+                    }
+                }
+            }
+            // classes only reachable through a cycle start at the first class of the cycle
+            if (c < n && depths[c] == -1) {
+                depths[c] = 0;
+                queue[tail++] = c;
+            }
+        }
+    }
+
+    public boolean contains(String clazz) {
+        return ids.getId(clazz) != UriDictionary.NOT_FOUND;
+    }
+
+    /**
+     * Checks if subclass is superclass or one of its direct or indirect subclasses.
+     */
+    public boolean isSubclassOf(String subclass, String superclass) {
+        if (subclass.equals(superclass)) {
+            return true;
+        }
+        int sub = ids.getId(subclass);
+        int sup = ids.getId(superclass);
+        return sub != UriDictionary.NOT_FOUND && sup != UriDictionary.NOT_FOUND && ancestors[sub].get(sup);
+    }
+
+    /**
+     * Returns the class and all its superclasses, or an empty set for unknown classes.
+     */
+    public Set<String> getAncestors(String clazz) {
+        int id = ids.getId(clazz);
+        if (id == UriDictionary.NOT_FOUND) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        BitSet bits = ancestors[id];
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(ids.getUri(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distance of the class from the top of the hierarchy or -1 for unknown classes.
+     */
+    public int getDepth(String clazz) {
+        int id = ids.getId(clazz);
+        return id == UriDictionary.NOT_FOUND ? -1 : depths[id];
+    }
+
+    /**
+     * Returns the most specific class both classes belong to, or null if they have none in common or one
+     * of them is unknown. With several superclasses the one with the most ancestors is taken.
+     */
+    public String getCommonSuperclass(String a, String b) {
+        int first = ids.getId(a);
+        int second = ids.getId(b);
+        if (first == UriDictionary.NOT_FOUND || second == UriDictionary.NOT_FOUND) {
+            return null;
+        }
+        BitSet common = (BitSet) ancestors[first].clone();
+        common.and(ancestors[second]);
+        return mostSpecific(common, -1);
+    }
+
+    /**
+     * Generalizes the class to its superclass at the given depth, so classes can be compared on one level
+     * of the hierarchy. Classes at or above the depth and unknown classes are returned as they are.
+     */
+    public String getAncestorAtDepth(String clazz, int depth) {
+        Validate.isTrue(depth >= 0, "depth must not be negative");
+        int id = ids.getId(clazz);
+        if (id == UriDictionary.NOT_FOUND || depths[id] <= depth) {
+            return clazz;
+        }
+        return mostSpecific(ancestors[id], depth);
+    }
+
+    /**
+     * The class in the set with the most ancestors, optionally only among the classes at one depth.
+     */
+    private String mostSpecific(BitSet classes, int depth) {
+        int best = -1;
+        for (int i = classes.nextSetBit(0); i >= 0; i = classes.nextSetBit(i + 1)) {
+            if ((depth == -1 || depths[i] == depth) && (best == -1 || ancestorCounts[i] > ancestorCounts[best])) {
+                best = i;
+            }
+        }
+        return best == -1 ? null : ids.getUri(best);
+    }
+}
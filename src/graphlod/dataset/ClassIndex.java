@@ -0,0 +1,63 @@
+package graphlod.dataset;
+
+import java.util.Arrays;
+
+/**
+ * The class of each entity of a dataset. Entities are dictionary ids of the dataset, their classes are ids
+ * of a dictionary of their own, so the index needs one int per entity and every class uri is stored once.
+ */
+class ClassIndex {
+    private static final int NO_CLASS = 0; // class ids are stored plus one, so a new array means no classes
+
+    private final UriDictionary classDictionary = new UriDictionary();
+    private int[] classes = new int[16];
+    private int size;
+
+    boolean contains(int entity) {
+        return entity < classes.length && classes[entity] != NO_CLASS;
+    }
+
+    /**
+     * Returns the class of the entity or null.
+     */
+    String get(int entity) {
+        if (!contains(entity)) {
+            return null;
+        }
+        return classDictionary.getUri(classes[entity] - 1);
+    }
+
+    /**
+     * Sets the class of the entity and returns the class uri as stored in the index.
+     */
+    String put(int entity, String clazz) {
+        if (entity >= classes.length) {
+            classes = Arrays.copyOf(classes, Math.max(entity + 1, classes.length * 2));
+        }
+        if (classes[entity] == NO_CLASS) {
+            size++;
+        }
+        int id = classDictionary.encode(clazz);
+        classes[entity] = id + 1;
+        return classDictionary.getUri(id);
+    }
+
+    /**
+     * Returns the first entity with a class at or after the given one, or -1.
+     */
+    int nextEntity(int entity) {
+        for (int i = entity; i < classes.length; i++) {
+            if (classes[i] != NO_CLASS) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of entities with a class.
+     */
+    int size() {
+        return size;
+    }
+}
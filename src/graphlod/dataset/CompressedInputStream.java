@@ -0,0 +1,286 @@
+package graphlod.dataset;
+
+import com.google.common.io.ByteStreams;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses a gzip or bzip2 file on background threads while the caller reads the result.
+ * Files made of several gzip members or bzip2 streams, as written by bgzip, pigz or pbzip2, are cut at the
+ * member starts into segments that are decompressed in parallel and read back in order. Member starts are
+ * found by their magic bytes, so a segment may start at a false match inside compressed data. Such a
+ * segment makes the one before it fail with a truncated member, which is then decompressed again together
+ * with the following segment. Files with a single member are decompressed on one thread.
+ */
+class CompressedInputStream extends InputStream {
+    private static Logger logger = LoggerFactory.getLogger(CompressedInputStream.class);
+
+    static final int NONE = 0;
+    static final int GZIP = 1;
+    static final int BZIP2 = 2;
+
+    private static final long SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int PIECE_SIZE = 1024 * 1024;
+    private static final int PIECES_PER_SEGMENT = 8;
+    private static final long SCAN_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int HEADER_LENGTH = 10; // bytes checked to recognize a member start
+    private static final byte[] END = new byte[0];
+
+    private final String file;
+    private final int format;
+    private final int threads;
+    private final ExecutorService pool;
+    private final Deque<Long> segmentStarts;
+    private final long length;
+    private final Deque<Segment> pending = new ArrayDeque<>();
+    private Segment current;
+    private byte[] piece = END;
+    private int position;
+
+    CompressedInputStream(String file, int threads) throws IOException {
+        this.file = file;
+        this.format = format(file);
+        Validate.isTrue(format != NONE, "not a gzip or bzip2 file: %s", file);
+        this.threads = threads;
+        this.length = new File(file).length();
+        this.segmentStarts = new ArrayDeque<>(threads > 1 ? findSegmentStarts() : Collections.singletonList(0L));
+        logger.info("Decompressing " + file + " in " + segmentStarts.size() + " segments with " + threads + " threads");
+        this.pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "decompress");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns {@link #GZIP} or {@link #BZIP2} based on the first bytes of the file, or {@link #NONE}.
+     */
+    static int format(String file) throws IOException {
+        byte[] magic = new byte[3];
+        int read;
+        try (InputStream in = new FileInputStream(file)) {
+            read = ByteStreams.read(in, magic, 0, magic.length);
+        }
+        if (read >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return GZIP;
+        }
+        if (read == 3 && magic[0] == 'B' && magic[1] == 'Z' && magic[2] == 'h') {
+            return BZIP2;
+        }
+        return NONE;
+    }
+
+    static boolean isCompressed(String file) {
+        try {
+            return format(file) != NONE;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return piece[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(count, piece.length - position);
+        System.arraycopy(piece, position, buffer, offset, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Makes sure there are bytes left in the current piece, returns false at the end of the file.
+     */
+    private boolean fill() throws IOException {
+        try {
+            while (position == piece.length) {
+                if (current == null) {
+                    submit();
+                    current = pending.poll();
+                    if (current == null) {
+                        return false;
+                    }
+                }
+                byte[] next = current.pieces.take();
+                if (next != END) {
+                    current.emitted += next.length;
+                    piece = next;
+                    position = 0;
+                } else if (current.error == null) {
+                    current = null;
+                } else {
+                    current = retry(current);
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private void submit() {
+        while (pending.size() < threads && !segmentStarts.isEmpty()) {
+            long start = segmentStarts.poll();
+            long end = segmentStarts.isEmpty() ? length : segmentStarts.peek();
+            Segment segment = new Segment(start, end, 0);
+            segment.future = pool.submit(segment);
+            pending.add(segment);
+        }
+    }
+
+    /**
+     * Decompresses the failed segment again together with the next one, skipping what was already read.
+     */
+    private Segment retry(Segment failed) throws IOException {
+        long end;
+        Segment next = pending.poll();
+        if (next != null) {
+            next.future.cancel(true);
+            end = next.end;
+        } else if (!segmentStarts.isEmpty()) {
+            segmentStarts.poll();
+            end = segmentStarts.isEmpty() ? length : segmentStarts.peek();
+        } else {
+            throw failed.error;
+        }
+        Segment segment = new Segment(failed.start, end, failed.emitted);
+        segment.future = pool.submit(segment);
+        return segment;
+    }
+
+    /**
+     * Collects the offsets of member starts that are at least {@link #SEGMENT_SIZE} apart.
+     */
+    private List<Long> findSegmentStarts() throws IOException {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long windowStart = SEGMENT_SIZE;
+            while (windowStart < length - HEADER_LENGTH) {
+                long size = Math.min(SCAN_WINDOW_SIZE, length - windowStart);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+                int found = -1;
+                for (int i = 0; i + HEADER_LENGTH <= size; i++) {
+                    if (format == GZIP ? isGzipHeader(buffer, i) : isBzip2Header(buffer, i)) {
+                        found = i;
+                        break;
+                    }
+                }
+                if (found >= 0) {
+                    starts.add(windowStart + found);
+                    windowStart += found + SEGMENT_SIZE;
+                } else {
+                    // continue the search with the bytes that could start a header at the end of the window
+                    windowStart += Math.max(1, size - HEADER_LENGTH + 1);
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static boolean isGzipHeader(MappedByteBuffer buffer, int i) {
+        if ((buffer.get(i) & 0xff) != 0x1f || (buffer.get(i + 1) & 0xff) != 0x8b || buffer.get(i + 2) != 8) {
+            return false;
+        }
+        int flags = buffer.get(i + 3) & 0xff;
+        int extraFlags = buffer.get(i + 8) & 0xff;
+        int os = buffer.get(i + 9) & 0xff;
+        return (flags & 0xe0) == 0 && (extraFlags == 0 || extraFlags == 2 || extraFlags == 4) && (os <= 13 || os == 255);
+    }
+
+    private static boolean isBzip2Header(MappedByteBuffer buffer, int i) {
+        // stream header followed by the magic of the first block
+        return buffer.get(i) == 'B' && buffer.get(i + 1) == 'Z' && buffer.get(i + 2) == 'h'
+                && buffer.get(i + 3) >= '1' && buffer.get(i + 3) <= '9'
+                && buffer.get(i + 4) == 0x31 && buffer.get(i + 5) == 0x41 && buffer.get(i + 6) == 0x59
+                && buffer.get(i + 7) == 0x26 && buffer.get(i + 8) == 0x53 && buffer.get(i + 9) == 0x59;
+    }
+
+    private InputStream decompress(InputStream in) throws IOException {
+        if (format == GZIP) {
+            return new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BZip2CompressorInputStream(in, true);
+    }
+
+    /**
+     * Decompresses a byte range of the file into a bounded queue of pieces, ended by {@link #END}.
+     */
+    private class Segment implements Runnable {
+        final long start;
+        final long end;
+        final long skip;
+        final BlockingQueue<byte[]> pieces = new ArrayBlockingQueue<>(PIECES_PER_SEGMENT + 1);
+        volatile IOException error;
+        long emitted; // only used by the reading thread
+        Future<?> future;
+
+        Segment(long start, long end, long skip) {
+            this.start = start;
+            this.end = end;
+            this.skip = skip;
+            this.emitted = skip;
+        }
+
+        @Override
+        public void run() {
+            try {
+                try (FileInputStream file = new FileInputStream(CompressedInputStream.this.file)) {
+                    file.getChannel().position(start);
+                    InputStream in = decompress(new BufferedInputStream(ByteStreams.limit(file, end - start), 64 * 1024));
+                    ByteStreams.skipFully(in, skip);
+                    while (true) {
+                        byte[] buffer = new byte[PIECE_SIZE];
+                        int read = ByteStreams.read(in, buffer, 0, buffer.length);
+                        if (read > 0) {
+                            pieces.put(read == buffer.length ? buffer : Arrays.copyOf(buffer, read));
+                        }
+                        if (read < buffer.length) {
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } catch (RuntimeException | Error e) {
+                    // the reader is blocked on the queue, so everything has to end up there
+                    error = new IOException(e);
+                }
+                pieces.put(END);
+            } catch (InterruptedException e) {
+                // cancelled by retry or close
+            }
+        }
+    }
+}
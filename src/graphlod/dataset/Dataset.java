@@ -3,46 +3,83 @@ package graphlod.dataset;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
-import com.tinkerpop.blueprints.Edge;
-import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
-import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
-import com.tinkerpop.blueprints.util.io.graphml.GraphMLReader;
+import graphlod.graph.CsrGraph;
+import graphlod.graph.DiskCsrGraph;
+import graphlod.graph.ExternalEdgeSorter;
+import graphlod.utils.GraphUtils;
 import org.apache.commons.lang3.Validate;
-import org.jgraph.graph.DefaultEdge;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.graph.DirectedPseudograph;
-import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.UndirectedGraph;
+import org.semanticweb.yars.nx.Literal;
 import org.semanticweb.yars.nx.Node;
 import org.semanticweb.yars.nx.parser.NxParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
-
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The graph of an RDF dataset together with its classes, labels and class hierarchy.
+ * Classes, labels and the excluded vertices are keyed by the ids of the {@link UriDictionary}, and
+ * {@link #getCsrGraph()} and {@link #getDiskGraph()} number the vertices with ints as well. The jgrapht graph
+ * is still keyed by uri Strings, since the analyses in GraphFeatures and GraphLOD work on Strings, but its
+ * vertices are the instances of the dictionary, so each uri is held in memory only once.
+ */
 public class Dataset {
     private static Logger logger = LoggerFactory.getLogger(Dataset.class);
 
-    private static final Map<String, String> classes = new HashMap<>(); // mapping from entities to their class
-
-    private final DirectedGraph<String, DefaultEdge> g = new DirectedPseudograph<>(DefaultEdge.class);
+    private final DirectedGraph<String, Edge> g = new DirectedPseudograph<>(Edge.class);
     private final String namespace;
     private final String ontologyNamespace;
-    private final SimpleGraph<String, DefaultEdge> simpleGraph = new SimpleGraph<>(DefaultEdge.class);
+    private UndirectedGraph<String, Edge> simpleGraph;
     private final Collection<String> excludedNamespaces;
-    private final Set<String> removeVertices = new HashSet<>();
+    private final NamespaceMatcher namespaceMatcher;
+    private final UriDictionary dictionary = new UriDictionary();
+    private final BitSet removeVertices = new BitSet(); // dictionary ids of vertices excluded from the graph
+    private final BitSet vertices = new BitSet(); // dictionary ids that become vertices unless they are excluded
+    private int[] vertexOrder = new int[1024]; // vertices in the order they were seen
+    private int vertexCount;
+    private int[] pendingEdges = new int[3 * 1024]; // subject, predicate and object of each edge read so far
+    private int edgeCount;
     private final Set<String> ontologyClasses = new HashSet<>(); // list of all classes
     private final Multimap<String, String> ontologySubclasses = ArrayListMultimap.create(); // classes and their subclasses
-    private final Map<String, String> labels = new HashMap<>();
+    private final LabelStore labels = new LabelStore(); // rdfs:labels of the entities
+    private boolean readLabels = true;
+    private DatasetSnapshot labelSnapshot; // labels not loaded from the snapshot yet
+    private long labelPosition;
+    private final ClassIndex classes = new ClassIndex(); // mapping from entities to their class
     private final String name;
+    private CsrGraph csrGraph;
+    private ClassHierarchy classHierarchy;
+    private ExternalEdgeSorter externalEdges; // only set while reading out of core
+    private DiskCsrGraph diskGraph;
+    private final IngestMetrics metrics = new IngestMetrics();
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 30;
 
     public static final String OWL_THING = "http://www.w3.org/2002/07/owl#Thing";
 
+    static final String RDF_TYPE = "http://www.w3.org/1999/02/22-rdf-syntax-ns#type";
+    static final String RDFS_LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+    static final String RDFS_SUBCLASS_OF = "http://www.w3.org/2000/01/rdf-schema#subClassOf";
+    static final String OWL_EQUIVALENT_CLASS = "http://www.w3.org/2002/07/owl#equivalentClass";
+    static final String RDF_PROPERTY = "http://www.w3.org/1999/02/22-rdf-syntax-ns#Property";
+    static final String RDFS_CLASS = "http://www.w3.org/1999/02/22-rdf-syntax-ns#Class";
+    static final String OWL_CLASS = "http://www.w3.org/2002/07/owl#Class";
+
+    // results of classifyTriple
+    static final int TRIPLE_INVALID = 0;
+    static final int TRIPLE_SCHEMA = 1;
+    static final int TRIPLE_REMOVE_SUBJECT = 2;
+    static final int TRIPLE_REMOVE_OBJECT = 3;
+    static final int TRIPLE_EDGE = 4;
+
     private Dataset(String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces) {
         Validate.notNull(namespace, "namespace must not be null");
         Validate.notNull(excludedNamespaces, "excludedNamespaces must not be null");
@@ -50,36 +87,252 @@ public class Dataset {
         this.namespace = namespace;
         this.ontologyNamespace = ontologyNamespace;
         this.excludedNamespaces = excludedNamespaces;
+        this.namespaceMatcher = new NamespaceMatcher(namespace, ontologyNamespace, excludedNamespaces);
     }
 
     public static Dataset fromLines(Iterable<String> lines, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces) {
         Dataset s = new Dataset(name, namespace, ontologyNamespace, excludedNamespaces);
         s.readTriples(new NxParser(lines));
-        s.cleanup();
+        s.buildGraph();
+        s.postProcessClassHierarchy();
         return s;
     }
 
     public static Dataset fromFiles(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces) {
+        return fromFiles(datasets, name, namespace, ontologyNamespace, excludedNamespaces, 1);
+    }
+
+    public static Dataset fromFiles(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads) {
+        return fromFiles(datasets, name, namespace, ontologyNamespace, excludedNamespaces, ingestThreads, false);
+    }
+
+    /**
+     * Reads the given N-Triples files. With more than one ingest thread the files are split into line-aligned
+     * chunks that are parsed and filtered in parallel and merged in input order, so the result is the same as
+     * reading them sequentially. Files compressed with gzip or bzip2 are recognized by their content and
+     * decompressed on the ingest threads instead.
+     * The mapped reader tokenizes the memory mapped files itself instead of using NxParser, see
+     * {@link MappedTripleReader}.
+     */
+    public static Dataset fromFiles(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads, boolean mappedReader) {
+        return read(datasets, name, namespace, ontologyNamespace, excludedNamespaces, ingestThreads, mappedReader, true);
+    }
+
+    private static Dataset read(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads, boolean mappedReader, boolean labels) {
         logger.info("excluded namespaces: " + excludedNamespaces);
         Validate.notNull(datasets, "datasets must not be null");
+        Validate.isTrue(ingestThreads > 0, "ingestThreads must be positive");
         Dataset s = new Dataset(name, namespace, ontologyNamespace, excludedNamespaces);
+        s.readLabels = labels;
+
+        for (String dataset : datasets) {
+            Validate.isTrue(new File(dataset).exists(), "dataset not found: %s", dataset);
+        }
+        s.readFiles(datasets, ingestThreads, mappedReader);
+        return s;
+    }
+
+    /**
+     * Like {@link #fromFiles(Collection, String, String, String, Collection, int, boolean)}, but keeps a binary
+     * snapshot of the result in the given directory. When a snapshot for the same files and arguments exists it
+     * is loaded instead of parsing the files. Without a directory nothing is cached.
+     */
+    public static Dataset fromFiles(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads, boolean mappedReader, File snapshotDirectory) {
+        return fromFiles(datasets, name, namespace, ontologyNamespace, excludedNamespaces, ingestThreads, mappedReader, snapshotDirectory, true);
+    }
 
+    /**
+     * Like {@link #fromFiles(Collection, String, String, String, Collection, int, boolean, File)}, but skips the
+     * rdfs:labels unless labels is set, for runs that never show them. Labels of a snapshot are only read on
+     * the first call to {@link #getLabel}, a snapshot written without labels is parsed again when they are
+     * needed.
+     */
+    public static Dataset fromFiles(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads, boolean mappedReader, File snapshotDirectory, boolean labels) {
+        if (snapshotDirectory == null) {
+            return read(datasets, name, namespace, ontologyNamespace, excludedNamespaces, ingestThreads, mappedReader, labels);
+        }
+        Validate.notNull(datasets, "datasets must not be null");
         for (String dataset : datasets) {
             Validate.isTrue(new File(dataset).exists(), "dataset not found: %s", dataset);
-            NxParser nxp;
+        }
+        DatasetSnapshot snapshot = new DatasetSnapshot(snapshotDirectory, datasets, namespace, ontologyNamespace, excludedNamespaces, mappedReader);
+        if (snapshot.exists()) {
+            Dataset s = new Dataset(name, namespace, ontologyNamespace, excludedNamespaces);
+            s.readLabels = labels;
             try {
-                nxp = new NxParser(new FileInputStream(dataset));
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException(e);
+                snapshot.read(s);
+                logger.info("Loaded snapshot " + snapshot.getFile());
+                return s;
+            } catch (IOException e) {
+                logger.warn("Could not read snapshot " + snapshot.getFile() + ", reading the dataset again", e);
             }
-            s.readTriples(nxp);
-            logger.info("Finished reading " + dataset);
-            logger.info("Found " + s.g.vertexSet().size() + " triples.");
         }
-        s.cleanup();
+        Dataset s = read(datasets, name, namespace, ontologyNamespace, excludedNamespaces, ingestThreads, mappedReader, labels);
+        try {
+            snapshot.write(s);
+            logger.info("Wrote snapshot " + snapshot.getFile());
+        } catch (IOException e) {
+            logger.warn("Could not write snapshot " + snapshot.getFile(), e);
+        }
+        return s;
+    }
+
+    /**
+     * Reads the files like {@link #fromFiles(Collection, String, String, String, Collection, int, boolean)}
+     * without building the graph in memory. Edges are spilled to sorted runs in the directory and merged into a
+     * {@link DiskCsrGraph}, see {@link #getDiskGraph()}, so the size of the graph is bounded by the disk. The
+     * dictionary, classes, labels and the class hierarchy are kept in memory as usual, {@link #getGraph()}
+     * stays empty.
+     */
+    public static Dataset fromFilesOutOfCore(Collection<String> datasets, String name, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, int ingestThreads, boolean mappedReader, File directory) {
+        Validate.notNull(datasets, "datasets must not be null");
+        Validate.isTrue(ingestThreads > 0, "ingestThreads must be positive");
+        for (String dataset : datasets) {
+            Validate.isTrue(new File(dataset).exists(), "dataset not found: %s", dataset);
+        }
+        Dataset s = new Dataset(name, namespace, ontologyNamespace, excludedNamespaces);
+        s.externalEdges = new ExternalEdgeSorter(directory);
+        s.readFiles(datasets, ingestThreads, mappedReader);
         return s;
     }
 
+    /**
+     * Reads the files once and builds the graph from the collected edges afterwards, see {@link #buildGraph}.
+     * The files have to exist.
+     */
+    private void readFiles(Collection<String> datasets, int ingestThreads, boolean mappedReader) {
+        metrics.startProgress(PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        try {
+            metrics.start("Reading");
+            readFilesOnce(datasets, ingestThreads, mappedReader);
+            buildGraph();
+        } finally {
+            metrics.stopProgress();
+        }
+        logger.info(metrics.toString());
+    }
+
+    private void readFilesOnce(Collection<String> datasets, int ingestThreads, boolean mappedReader) {
+        if (ingestThreads > 1) {
+            readChunked(datasets, ingestThreads, mappedReader);
+            return;
+        }
+        for (String dataset : datasets) {
+            if (CompressedInputStream.isCompressed(dataset)) {
+                readCompressed(dataset, ingestThreads, mappedReader);
+            } else if (mappedReader) {
+                try {
+                    new MappedTripleReader(this, dictionary).read(dataset, 0, new File(dataset).length(), tripleHandler());
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                finishedFile(dataset);
+            } else {
+                NxParser nxp;
+                try {
+                    nxp = new NxParser(metrics.count(new FileInputStream(dataset)));
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException(e);
+                }
+                readTriples(nxp);
+                finishedFile(dataset);
+            }
+        }
+    }
+
+    /**
+     * Reads the uncompressed files with one {@link ChunkedTripleReader}, each run of them between compressed
+     * files is chunked as a whole so the workers can move on to the next file before the last one is merged.
+     */
+    private void readChunked(Collection<String> datasets, int ingestThreads, boolean mappedReader) {
+        try (ChunkedTripleReader reader = new ChunkedTripleReader(this, ingestThreads, mappedReader)) {
+            List<String> run = new ArrayList<>();
+            for (String dataset : datasets) {
+                if (CompressedInputStream.isCompressed(dataset)) {
+                    if (!run.isEmpty()) {
+                        reader.read(run);
+                        run.clear();
+                    }
+                    readCompressed(dataset, ingestThreads, mappedReader);
+                } else {
+                    run.add(dataset);
+                }
+            }
+            if (!run.isEmpty()) {
+                reader.read(run);
+            }
+        }
+    }
+
+    /**
+     * Reads a gzip or bzip2 file, decompressing it on the ingest threads while the triples are parsed.
+     */
+    private void readCompressed(String dataset, int ingestThreads, boolean mappedReader) {
+        try (InputStream in = metrics.count(new CompressedInputStream(dataset, ingestThreads))) {
+            if (mappedReader) {
+                new MappedTripleReader(this, dictionary).read(in, tripleHandler());
+            } else {
+                readTriples(new NxParser(in));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        finishedFile(dataset);
+    }
+
+    private MappedTripleReader.TripleHandler tripleHandler() {
+        return new MappedTripleReader.TripleHandler() {
+            @Override
+            public void triple(String subjectUri, String propertyUri, String objectUri, int kind) {
+                addTriple(subjectUri, propertyUri, objectUri, kind);
+            }
+        };
+    }
+
+    /**
+     * Called after all triples of a file have been added.
+     */
+    void finishedFile(String dataset) {
+        postProcessClassHierarchy();
+        logger.info("Finished reading " + dataset);
+        logger.info("Found " + vertices.cardinality() + " vertices and " + edgeCount + " edges in " + metrics.getTriples() + " triples so far, before exclusion.");
+    }
+
+    /**
+     * Inserts the vertices and edges read so far into the graph, leaving out the excluded vertices and the
+     * edges touching them. The exclusions are only complete once all triples are read, so the edges are
+     * collected as dictionary ids until then, which never inserts a vertex just to remove it again. Out of
+     * core the edges are in the sorter already and the excluded vertices are dropped when it is merged.
+     */
+    private void buildGraph() {
+        logger.info("Excluding " + removeVertices.cardinality() + " vertices");
+        if (externalEdges != null) {
+            vertices.andNot(removeVertices);
+            diskGraph = externalEdges.finish(dictionary, vertices);
+            externalEdges = null;
+            metrics.verticesAdded(diskGraph.getVertexCount());
+            metrics.edgesAdded(diskGraph.getEdgeCount());
+            return;
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            int id = vertexOrder[i];
+            if (!removeVertices.get(id)) {
+                g.addVertex(dictionary.getUri(id));
+                metrics.vertexAdded();
+            }
+        }
+        for (int i = 0; i < 3 * edgeCount; i += 3) {
+            int subject = pendingEdges[i];
+            int object = pendingEdges[i + 2];
+            if (!removeVertices.get(subject) && !removeVertices.get(object)) {
+                g.addEdge(dictionary.getUri(subject), dictionary.getUri(object), new Edge(pendingEdges[i + 1]));
+                metrics.edgeAdded();
+            }
+        }
+        vertexOrder = null;
+        pendingEdges = null;
+    }
+
     public static Dataset fromGraphML(String file, String name, GraphMLHandler handler) {
         try {
             InputStream input = Files.newInputStream(Paths.get(file));
@@ -89,63 +342,49 @@ public class Dataset {
         }
     }
 
-    public static Dataset fromGraphML(InputStream dataset, String name, GraphMLHandler handler) throws IOException {
-        Graph graph = new TinkerGraph();
-        GraphMLReader reader = new GraphMLReader(graph);
-        reader.inputGraph(dataset);
+    public static Dataset fromGraphML(InputStream dataset, String name, final GraphMLHandler handler) throws IOException {
+        final Dataset ds = new Dataset(name, "", "", Collections.<String>emptyList());
+        new GraphMLStreamReader(new GraphMLStreamReader.Listener() {
+            @Override
+            public void vertex(Vertex vertex) {
+                ds.addGraphMLVertex(vertex, handler);
+            }
 
-        Dataset ds = new Dataset(name, "", "", Collections.<String>emptyList());
-        ds.readGraph(graph, handler, false);
+            @Override
+            public void edge(com.tinkerpop.blueprints.Edge edge) {
+                ds.addGraphMLEdge(edge, handler);
+            }
+        }).read(dataset);
+        ds.postProcessClassHierarchy();
         return ds;
     }
 
-    private void readGraph(Graph inputGraph, GraphMLHandler handler, boolean addTypeTuples) {
-        for (Vertex vertex : inputGraph.getVertices()) {
-            String v = handler.getVertex(vertex);
+    private void addGraphMLVertex(Vertex vertex, GraphMLHandler handler) {
+        String v = dictionary.canonical(handler.getVertex(vertex));
 
-            simpleGraph.addVertex(v);
-            g.addVertex(v);
-            String clazz = handler.getClass(vertex);
-            if (clazz != null) {
-                classes.put(v, clazz);
-                ontologyClasses.add(clazz);
-            }
-            String label = handler.getLabel(vertex);
-            if (label != null) {
-                labels.put(v, label);
-            }
+        g.addVertex(v);
+        String clazz = handler.getClass(vertex);
+        if (clazz != null) {
+            clazz = dictionary.canonical(clazz);
+            classes.put(dictionary.encode(v), clazz);
+            ontologyClasses.add(clazz);
         }
-        for (Edge edge : inputGraph.getEdges()) {
-            String source = handler.getSubject(edge);
-            String target = handler.getObject(edge);
-            String property = handler.getProperty(edge);
-
-            simpleGraph.addEdge(source, target);
-
-            DefaultEdge e = new DefaultEdge(property);
-            e.setSource(source);
-            e.setTarget(target);
-            g.addEdge(source, target, e);
-        }
-
-        if(addTypeTuples) {
-            for (Map.Entry<String, String> entry : classes.entrySet()) {
-                String instance = entry.getKey();
-                String type = entry.getValue();
-                simpleGraph.addVertex(type);
-                simpleGraph.addEdge(instance, type);
-                DefaultEdge e = new DefaultEdge("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
-                e.setSource(instance);
-                e.setTarget(type);
-                g.addVertex(type);
-                g.addEdge(instance, type, e);
-            }
+        String label = handler.getLabel(vertex);
+        if (label != null) {
+            labels.put(dictionary.encode(v), label);
         }
-        postProcessClassHierarchy();
     }
 
-    private void readTriples(NxParser nxp) {
+    private void addGraphMLEdge(com.tinkerpop.blueprints.Edge edge, GraphMLHandler handler) {
+        String source = dictionary.canonical(handler.getSubject(edge));
+        String target = dictionary.canonical(handler.getObject(edge));
+        String property = handler.getProperty(edge);
+        int predicate = property == null ? Edge.NO_PREDICATE : dictionary.encode(property);
+
+        g.addEdge(source, target, new Edge(predicate));
+    }
 
+    private void readTriples(NxParser nxp) {
         while (nxp.hasNext()) {
             Node[] nodes = nxp.next();
             if (nodes.length != 3) {
@@ -155,107 +394,182 @@ public class Dataset {
             String propertyUri = nodes[1].toString();
             String objectUri = nodes[2].toString();
 
-            if (!isValid(subjectUri) || !isValid(propertyUri) || !isValid(objectUri)) {
-                continue;
+            int kind = classifyTriple(subjectUri, propertyUri, objectUri, nodes[2] instanceof Literal);
+            if (kind != TRIPLE_INVALID) {
+                addTriple(subjectUri, propertyUri, objectUri, kind);
             }
+        }
+    }
 
-            if (subjectUri.equals(objectUri)) {
-                continue;
-            }
+    int classifyTriple(CharSequence subjectUri, CharSequence propertyUri, CharSequence objectUri) {
+        return classifyTriple(subjectUri, propertyUri, objectUri, false);
+    }
 
-            /*
-            if (!(subjectUri.endsWith("Lyudmila_Chernykh") || subjectUri.endsWith("Nikolai_Chernykh")
-                || objectUri.endsWith("Lyudmila_Chernykh") || objectUri.endsWith("Nikolai_Chernykh")
-                || objectUri.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#Class") ||
-                    subjectUri.startsWith(ontologyNamespace))) {
-                continue;
-            } else {
-                logger.info(subjectUri + " " + objectUri);
-            }
-            */
+    /**
+     * Decides what to do with a triple without touching any state of the dataset apart from the thread safe
+     * metrics, so it can run on the ingest worker threads. The result is applied by {@link #addTriple}. The
+     * terms don't have to be Strings yet, the mapped reader passes views on the bytes of the file.
+     * @param literal whether the object was parsed as a literal, only used to count the rejection
+     */
+    int classifyTriple(CharSequence subjectUri, CharSequence propertyUri, CharSequence objectUri, boolean literal) {
+        metrics.triple();
+        if (!isValid(subjectUri) || !isValid(propertyUri)) {
+            return reject(IngestMetrics.Rejection.INVALID_IRI);
+        }
+        if (!isValid(objectUri)) {
+            return reject(literal ? IngestMetrics.Rejection.LITERAL : IngestMetrics.Rejection.INVALID_IRI);
+        }
 
-            if (propertyUri.equals("http://www.w3.org/2000/01/rdf-schema#label")) {
-                labels.put(subjectUri, objectUri);
-            }
+        if (contentEquals(subjectUri, objectUri)) {
+            return reject(IngestMetrics.Rejection.SELF_LOOP);
+        }
 
-            if (propertyUri.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#type")) {
-                if (objectUri.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#Property")) {
-                    removeVertices.add(subjectUri);
-                    removeVertices.add(objectUri);
-                } else if (objectUri.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#Class") ||
-                        objectUri.equals("http://www.w3.org/2002/07/owl#Class")) {
-                    removeVertices.add(subjectUri);
-                    removeVertices.add(objectUri);
-                } else if (objectUri.startsWith(ontologyNamespace) && !classes.containsKey(subjectUri)) {
-                    // TODO find top classes for each class hierarchy tree path and only save top one
-                    classes.put(subjectUri, objectUri);
-                    if (!g.containsVertex(subjectUri)) {
-                        g.addVertex(subjectUri);
-                        simpleGraph.addVertex(subjectUri);
-                    }
-                    if (!this.ontologyClasses.contains(objectUri)) {
-                        this.ontologyClasses.add(objectUri);
-                    }
-                }
-                // owl:DatatypeProperty
-                // owl:ObjectProperty
-            } else if (propertyUri.equals("http://www.w3.org/2002/07/owl#equivalentClass")) {
-                removeVertices.add(subjectUri);
-                removeVertices.add(objectUri);
-            } else if (propertyUri.equals("http://www.w3.org/2000/01/rdf-schema#subClassOf")) {
-                ontologySubclasses.put(objectUri, subjectUri);
+        /*
+        if (!(subjectUri.endsWith("Lyudmila_Chernykh") || subjectUri.endsWith("Nikolai_Chernykh")
+            || objectUri.endsWith("Lyudmila_Chernykh") || objectUri.endsWith("Nikolai_Chernykh")
+            || objectUri.equals("http://www.w3.org/1999/02/22-rdf-syntax-ns#Class") ||
+                subjectUri.startsWith(ontologyNamespace))) {
+            continue;
+        } else {
+            logger.info(subjectUri + " " + objectUri);
+        }
+        */
+
+        if (RDF_TYPE.contentEquals(propertyUri) || OWL_EQUIVALENT_CLASS.contentEquals(propertyUri) || RDFS_SUBCLASS_OF.contentEquals(propertyUri)) {
+            metrics.reject(IngestMetrics.Rejection.SCHEMA);
+            return TRIPLE_SCHEMA;
+        }
+        int subjectMatch = namespaceMatcher.match(subjectUri);
+        if (!NamespaceMatcher.inNamespace(subjectMatch)) {
+            metrics.reject(IngestMetrics.Rejection.OUT_OF_NAMESPACE);
+            return TRIPLE_REMOVE_SUBJECT;
+        }
+        int objectMatch = namespaceMatcher.match(objectUri);
+        if (!NamespaceMatcher.inNamespace(objectMatch)) {
+            metrics.reject(IngestMetrics.Rejection.OUT_OF_NAMESPACE);
+            return TRIPLE_REMOVE_OBJECT;
+        }
+        // the subject is checked first against each excluded namespace in turn
+        int subjectExcluded = NamespaceMatcher.excludedIndex(subjectMatch);
+        int objectExcluded = NamespaceMatcher.excludedIndex(objectMatch);
+        if (subjectExcluded != NamespaceMatcher.NOT_EXCLUDED && subjectExcluded <= objectExcluded) {
+            metrics.reject(IngestMetrics.Rejection.EXCLUDED_NAMESPACE);
+            return TRIPLE_REMOVE_SUBJECT;
+        } else if (objectExcluded != NamespaceMatcher.NOT_EXCLUDED) {
+            metrics.reject(IngestMetrics.Rejection.EXCLUDED_NAMESPACE);
+            return TRIPLE_REMOVE_OBJECT;
+        }
+        return TRIPLE_EDGE;
+    }
+
+    private int reject(IngestMetrics.Rejection reason) {
+        metrics.reject(reason);
+        return TRIPLE_INVALID;
+    }
+
+    /**
+     * Applies a triple classified by {@link #classifyTriple} to the dataset. Must be called in input order.
+     * The uris are replaced by their dictionary instances before they are stored anywhere, so every uri
+     * is held in memory only once no matter how many triples mention it.
+     */
+    void addTriple(String subjectUri, String propertyUri, String objectUri, int kind) {
+        if (readLabels && propertyUri.equals(RDFS_LABEL)) {
+            labels.put(dictionary.encode(subjectUri), objectUri);
+        }
+
+        switch (kind) {
+            case TRIPLE_SCHEMA:
+                addSchemaTriple(dictionary.canonical(subjectUri), dictionary.canonical(propertyUri), dictionary.canonical(objectUri));
+                break;
+            case TRIPLE_EDGE:
+                addEdge(dictionary.encode(subjectUri), dictionary.encode(propertyUri), dictionary.encode(objectUri));
+                break;
+            case TRIPLE_REMOVE_SUBJECT:
+                markRemoved(subjectUri);
+                break;
+            case TRIPLE_REMOVE_OBJECT:
+                markRemoved(objectUri);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Properties, classes and equivalent classes are not part of the graph.
+     */
+    private static boolean isExcludingSchemaTriple(String propertyUri, String objectUri) {
+        if (propertyUri.equals(RDF_TYPE)) {
+            return objectUri.equals(RDF_PROPERTY) || objectUri.equals(RDFS_CLASS) || objectUri.equals(OWL_CLASS);
+        }
+        return propertyUri.equals(OWL_EQUIVALENT_CLASS);
+    }
+
+    private void markRemoved(String uri) {
+        removeVertices.set(dictionary.encode(uri));
+    }
+
+    private void addSchemaTriple(String subjectUri, String propertyUri, String objectUri) {
+        if (isExcludingSchemaTriple(propertyUri, objectUri)) {
+            markRemoved(subjectUri);
+            markRemoved(objectUri);
+            return;
+        }
+        if (propertyUri.equals(RDF_TYPE)) {
+            int subject = dictionary.encode(subjectUri);
+            if (NamespaceMatcher.inOntologyNamespace(namespaceMatcher.match(objectUri)) && !classes.contains(subject)) {
+                // TODO find top classes for each class hierarchy tree path and only save top one
+                classes.put(subject, objectUri);
+                addVertex(subject);
                 if (!this.ontologyClasses.contains(objectUri)) {
                     this.ontologyClasses.add(objectUri);
                 }
-                if (!this.ontologyClasses.contains(subjectUri)) {
-                    this.ontologyClasses.add(subjectUri);
-                }
-            } else if (!subjectUri.startsWith(namespace)) {
-                removeVertices.add(subjectUri);
-            } else if (!objectUri.startsWith(namespace)) {
-                removeVertices.add(objectUri);
-            } else {
-                boolean skip = false;
-                for (String s : excludedNamespaces) {
-                    if (subjectUri.startsWith(s)) {
-                        removeVertices.add(subjectUri);
-                        skip = true;
-                        break;
-                    }
-                    if (objectUri.startsWith(s)) {
-                        removeVertices.add(objectUri);
-                        skip = true;
-                        break;
-                    }
-                }
-                if (skip) {
-                    continue;
-                }
+            }
+            // owl:DatatypeProperty
+            // owl:ObjectProperty
+        } else if (propertyUri.equals(RDFS_SUBCLASS_OF)) {
+            ontologySubclasses.put(objectUri, subjectUri);
+            if (!this.ontologyClasses.contains(objectUri)) {
+                this.ontologyClasses.add(objectUri);
+            }
+            if (!this.ontologyClasses.contains(subjectUri)) {
+                this.ontologyClasses.add(subjectUri);
+            }
+        }
+    }
 
-                if (!g.containsVertex(subjectUri)) {
-                    g.addVertex(subjectUri);
-                    simpleGraph.addVertex(subjectUri);
-                }
-                if (!g.containsVertex(objectUri)) {
-                    g.addVertex(objectUri);
-                    simpleGraph.addVertex(objectUri);
-                }
-                DefaultEdge e = new DefaultEdge(propertyUri);
-                e.setSource(subjectUri);
-                e.setTarget(objectUri);
-                g.addEdge(subjectUri, objectUri, e);
-                //g.addEdge(subjectUri, objectUri);
-                if (!simpleGraph.containsEdge(subjectUri, objectUri) && !simpleGraph.containsEdge(objectUri, subjectUri)) {
-                    DefaultEdge e1 = new DefaultEdge(propertyUri);
-                    e1.setSource(subjectUri);
-                    e1.setTarget(objectUri);
-                    simpleGraph.addEdge(subjectUri, objectUri, e1);
-                    // simpleGraph.addEdge(subjectUri, objectUri);
-                }
+    /**
+     * Collects the edge for {@link #buildGraph}, an end that is not excluded becomes a vertex even if the
+     * other one is.
+     */
+    private void addEdge(int subject, int predicate, int object) {
+        addVertex(subject);
+        addVertex(object);
+        if (externalEdges != null) {
+            externalEdges.add(subject, object);
+        } else {
+            if (3 * edgeCount == pendingEdges.length) {
+                pendingEdges = Arrays.copyOf(pendingEdges, pendingEdges.length * 2);
             }
+            pendingEdges[3 * edgeCount] = subject;
+            pendingEdges[3 * edgeCount + 1] = predicate;
+            pendingEdges[3 * edgeCount + 2] = object;
         }
+        edgeCount++;
+    }
 
-        postProcessClassHierarchy();
+    private void addVertex(int id) {
+        if (vertices.get(id)) {
+            return;
+        }
+        vertices.set(id);
+        if (externalEdges != null) {
+            return;
+        }
+        if (vertexCount == vertexOrder.length) {
+            vertexOrder = Arrays.copyOf(vertexOrder, vertexCount * 2);
+        }
+        vertexOrder[vertexCount++] = id;
     }
 
     /**
@@ -271,62 +585,138 @@ public class Dataset {
         ontologySubclasses.get(OWL_THING).addAll(classesWithoutSuperClass);
     }
 
-    public static String getClass(String subjectUri) {
-        return classes.get(subjectUri);
+    /**
+     * Returns the class of the entity or null.
+     */
+    public String getClass(String subjectUri) {
+        int id = dictionary.getId(subjectUri);
+        return id == UriDictionary.NOT_FOUND ? null : classes.get(id);
     }
 
+    /**
+     * Returns a copy of the mapping from entities to their class.
+     */
     public Map<String,String> getClasses() {
+        Map<String, String> copy = new HashMap<>();
+        for (int id = classes.nextEntity(0); id >= 0; id = classes.nextEntity(id + 1)) {
+            copy.put(dictionary.getUri(id), classes.get(id));
+        }
+        return copy;
+    }
+
+    ClassIndex getClassIndex() {
         return classes;
     }
 
     public String getClassForSubject(String subjectUri) {
-        if (!classes.containsKey(subjectUri)) return "null";
-        return classes.get(subjectUri);
+        String clazz = getClass(subjectUri);
+        return clazz == null ? "null" : clazz;
     }
 
     public List<String> getClassForSubjects(List<String> subjectUris) {
         List<String> classList = new ArrayList<>();
         for (String subjectUri: subjectUris) {
-            if (!classes.containsKey(subjectUri)) {
-                classList.add("null");
-            } else {
-                classList.add(classes.get(subjectUri));
-            }
+            classList.add(getClassForSubject(subjectUri));
         }
         return classList;
     }
 
-    private void cleanup() {
-        for (String vertex : removeVertices) {
-            if (g.containsVertex(vertex)) {
-                g.removeVertex(vertex);
-            }
-        }
+    private boolean isValid(CharSequence url) {
+        return UriValidator.isValid(url);
     }
 
-    private boolean isValid(String url) {
-        try {
-            URL checked = new URL(url);
-            return true;
-        } catch (MalformedURLException e) {
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) {
             return false;
         }
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    public DirectedGraph<String, DefaultEdge> getGraph() {
+    /**
+     * The graph with the dictionary instances of the uris as vertices.
+     */
+    public DirectedGraph<String, Edge> getGraph() {
         return this.g;
     }
 
-    public SimpleGraph<String, DefaultEdge> getSimpleGraph() {
+    /**
+     * Returns an array based snapshot of the graph, built on the first call once reading is complete.
+     */
+    public CsrGraph getCsrGraph() {
+        if (this.csrGraph == null) {
+            this.csrGraph = new CsrGraph(this.g);
+        }
+        return this.csrGraph;
+    }
+
+    /**
+     * Returns the graph written to disk by {@link #fromFilesOutOfCore}, or null if the graph was read into memory.
+     */
+    public DiskCsrGraph getDiskGraph() {
+        return this.diskGraph;
+    }
+
+    /**
+     * Returns an undirected copy of the graph with at most one edge between two vertices and no loops, built
+     * on the first call once reading is complete, see {@link GraphUtils#toSimpleGraph}.
+     */
+    public UndirectedGraph<String, Edge> getSimpleGraph() {
+        if (this.simpleGraph == null) {
+            this.simpleGraph = GraphUtils.toSimpleGraph(this.g);
+        }
         return this.simpleGraph;
     }
 
+    /**
+     * The dictionary of all uris seen while reading, vertices of the graph are its instances.
+     */
+    public UriDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Counters of the last pass over the input files, updated while reading.
+     */
+    public IngestMetrics getIngestMetrics() {
+        return metrics;
+    }
+
     public String getName() {
         return this.name;
     }
 
     public String getLabel(String uri) {
-        return labels.get(uri);
+        int id = dictionary.getId(uri);
+        return id == UriDictionary.NOT_FOUND ? null : getLabelStore().get(id);
+    }
+
+    synchronized LabelStore getLabelStore() {
+        if (labelSnapshot != null) {
+            try {
+                labelSnapshot.readLabels(labels, dictionary.size(), labelPosition);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            labelSnapshot = null;
+        }
+        return labels;
+    }
+
+    boolean isReadingLabels() {
+        return readLabels;
+    }
+
+    /**
+     * Defers reading the labels until they are asked for.
+     */
+    void setLabelSource(DatasetSnapshot snapshot, long position) {
+        this.labelSnapshot = snapshot;
+        this.labelPosition = position;
     }
 
     public String getOntologyNamespace() {
@@ -340,4 +730,14 @@ public class Dataset {
     public Multimap<String, String> getOntologySubclasses() {
         return ontologySubclasses;
     }
+
+    /**
+     * Returns the ancestor index of the ontology classes, built on the first call once reading is complete.
+     */
+    public ClassHierarchy getClassHierarchy() {
+        if (this.classHierarchy == null) {
+            this.classHierarchy = new ClassHierarchy(ontologyClasses, ontologySubclasses);
+        }
+        return this.classHierarchy;
+    }
 }
@@ -0,0 +1,301 @@
+package graphlod.dataset;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jgrapht.DirectedGraph;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary image of a dataset after reading, so later runs on the same files don't have to parse
+ * them again. The file name contains a hash of the input files (path, size and modification time) and of
+ * the namespace and reader arguments, any change to them leads to a new snapshot.
+ * The snapshot holds the uri dictionary followed by vertices and edges in graph order, the classes, the
+ * labels and the class hierarchy. Strings are stored once in the dictionary where possible, everything
+ * else refers to them by id. Reading maps the file into memory instead of streaming it. The labels are
+ * skipped and only read when the dataset needs them.
+ */
+class DatasetSnapshot {
+    private static final int MAGIC = 0x474c4f44; // "GLOD"
+    private static final int VERSION = 4;
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final File file;
+    private final String key;
+
+    DatasetSnapshot(File directory, Collection<String> datasets, String namespace, String ontologyNamespace, Collection<String> excludedNamespaces, boolean mappedReader) {
+        Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putInt(VERSION);
+        for (String dataset : datasets) {
+            File input = new File(dataset).getAbsoluteFile();
+            hasher.putString(input.getPath(), StandardCharsets.UTF_8).putLong(input.length()).putLong(input.lastModified());
+        }
+        hasher.putString(namespace, StandardCharsets.UTF_8);
+        hasher.putBoolean(ontologyNamespace != null);
+        if (ontologyNamespace != null) {
+            hasher.putString(ontologyNamespace, StandardCharsets.UTF_8);
+        }
+        for (String excluded : excludedNamespaces) {
+            hasher.putInt(excluded.length()).putString(excluded, StandardCharsets.UTF_8);
+        }
+        // the readers differ in how they treat literals
+        hasher.putBoolean(mappedReader);
+        this.key = hasher.hash().toString();
+        this.file = new File(directory, "graphlod-" + key + ".snapshot");
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    boolean exists() {
+        return file.isFile();
+    }
+
+    void write(Dataset dataset) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        File temp = new File(file.getPath() + ".tmp");
+        UriDictionary dictionary = dataset.getDictionary();
+        DirectedGraph<String, Edge> graph = dataset.getGraph();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, key);
+
+            out.writeInt(dictionary.size());
+            for (int id = 0; id < dictionary.size(); id++) {
+                writeString(out, dictionary.getUri(id));
+            }
+
+            out.writeInt(graph.vertexSet().size());
+            for (String vertex : graph.vertexSet()) {
+                out.writeInt(dictionary.getId(vertex));
+            }
+            out.writeInt(graph.edgeSet().size());
+            for (Edge edge : graph.edgeSet()) {
+                out.writeInt(dictionary.getId(edge.getSource()));
+                out.writeInt(dictionary.getId(edge.getTarget()));
+                out.writeInt(edge.getPredicate());
+            }
+
+            ClassIndex classes = dataset.getClassIndex();
+            out.writeInt(classes.size());
+            for (int id = classes.nextEntity(0); id >= 0; id = classes.nextEntity(id + 1)) {
+                out.writeInt(id);
+                writeString(out, classes.get(id));
+            }
+            writeLabels(out, dataset);
+
+            Set<String> ontologyClasses = dataset.getOntologyClasses();
+            out.writeInt(ontologyClasses.size());
+            for (String clazz : ontologyClasses) {
+                writeString(out, clazz);
+            }
+            Map<String, Collection<String>> subclasses = dataset.getOntologySubclasses().asMap();
+            out.writeInt(subclasses.size());
+            for (Map.Entry<String, Collection<String>> entry : subclasses.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String subclass : entry.getValue()) {
+                    writeString(out, subclass);
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Fills the empty dataset with the content of the snapshot.
+     */
+    void read(Dataset dataset) throws IOException {
+        UriDictionary dictionary = dataset.getDictionary();
+        DirectedGraph<String, Edge> graph = dataset.getGraph();
+        try (MappedInput in = new MappedInput(file)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readString())) {
+                throw new IOException("not a snapshot of this dataset: " + file);
+            }
+
+            int uris = in.readInt();
+            for (int id = 0; id < uris; id++) {
+                dictionary.encode(in.readString());
+            }
+
+            int vertices = in.readInt();
+            for (int i = 0; i < vertices; i++) {
+                graph.addVertex(dictionary.getUri(in.readInt()));
+            }
+            int edges = in.readInt();
+            for (int i = 0; i < edges; i++) {
+                String source = dictionary.getUri(in.readInt());
+                String target = dictionary.getUri(in.readInt());
+                int predicate = in.readInt();
+                graph.addEdge(source, target, new Edge(predicate));
+            }
+
+            ClassIndex classes = dataset.getClassIndex();
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                int subject = in.readInt();
+                if (subject < 0 || subject >= dictionary.size()) {
+                    throw new IOException("corrupt snapshot: " + file);
+                }
+                classes.put(subject, dictionary.canonical(in.readString()));
+            }
+            boolean hasLabels = in.readByte() != 0;
+            if (hasLabels) {
+                long length = in.readLong();
+                dataset.setLabelSource(this, in.position());
+                in.skip(length);
+            } else if (dataset.isReadingLabels()) {
+                throw new IOException("snapshot was written without labels: " + file);
+            }
+
+            int ontologyClasses = in.readInt();
+            for (int i = 0; i < ontologyClasses; i++) {
+                dataset.getOntologyClasses().add(dictionary.canonical(in.readString()));
+            }
+            int superclasses = in.readInt();
+            for (int i = 0; i < superclasses; i++) {
+                Collection<String> subclasses = dataset.getOntologySubclasses().get(dictionary.canonical(in.readString()));
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    subclasses.add(dictionary.canonical(in.readString()));
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Reads the labels written at the given position of the snapshot into the store.
+     * @param idCount number of dictionary ids of the dataset
+     */
+    void readLabels(LabelStore labels, int idCount, long position) throws IOException {
+        try (MappedInput in = new MappedInput(file)) {
+            in.skip(position);
+            int labelCount = in.readInt();
+            for (int i = 0; i < labelCount; i++) {
+                int subject = in.readInt();
+                if (subject < 0 || subject >= idCount) {
+                    throw new IOException("corrupt snapshot: " + file);
+                }
+                labels.put(subject, in.readString());
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * The labels are preceded by their length in bytes, so reading can skip them.
+     */
+    private static void writeLabels(DataOutputStream out, Dataset dataset) throws IOException {
+        out.writeBoolean(dataset.isReadingLabels());
+        if (!dataset.isReadingLabels()) {
+            return;
+        }
+        LabelStore labels = dataset.getLabelStore();
+        long length = 4;
+        for (int id = labels.nextEntity(0); id >= 0; id = labels.nextEntity(id + 1)) {
+            length += 8 + labels.getByteLength(id);
+        }
+        out.writeLong(length);
+        out.writeInt(labels.size());
+        for (int id = labels.nextEntity(0); id >= 0; id = labels.nextEntity(id + 1)) {
+            out.writeInt(id);
+            labels.write(id, out);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a file through a sliding memory mapped window, so files larger than 2GB can be read as well.
+     */
+    private static class MappedInput implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        MappedInput(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            size = channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                map(windowStart + buffer.position());
+                if (buffer.remaining() < bytes) {
+                    throw new EOFException();
+                }
+            }
+        }
+
+        byte readByte() throws IOException {
+            require(1);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return buffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        long position() {
+            return windowStart + buffer.position();
+        }
+
+        void skip(long bytes) throws IOException {
+            long position = position() + bytes;
+            if (position > size) {
+                throw new EOFException();
+            }
+            map(position);
+        }
+
+        String readString() throws IOException {
+            int length = readInt();
+            if (length < 0) {
+                throw new IOException("negative string length");
+            }
+            require(length);
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
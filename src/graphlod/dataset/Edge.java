@@ -3,26 +3,36 @@ package graphlod.dataset;
 import org.jgrapht.graph.DefaultEdge;
 
 /**
- * Extends DefaultEdge to add a label to the graph. The label is the
- * relationId that relates the entities the edge connects.
+ * Edge between two entities. Source and target are set by the graph the edge is added to, the relation
+ * is the id of the property uri in the {@link UriDictionary} of the dataset.
  */
 public class Edge extends DefaultEdge {
-    private String uri;
+    public static final int NO_PREDICATE = -1;
+
+    private final int predicate;
 
     public Edge() {
-        super();
+        this(NO_PREDICATE);
+    }
+
+    public Edge(int predicate) {
+        this.predicate = predicate;
     }
 
-    public Edge(String uri) {
-        this();
-        setUri(uri);
+    /**
+     * Returns the dictionary id of the relation or {@link #NO_PREDICATE}.
+     */
+    public int getPredicate() {
+        return predicate;
     }
 
-    public String getUri() {
-        return uri;
+    @Override
+    public String getSource() {
+        return (String) super.getSource();
     }
 
-    public void setUri(String uri) {
-        this.uri = uri;
+    @Override
+    public String getTarget() {
+        return (String) super.getTarget();
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,11 @@
 package graphlod.dataset;
 
-
+/**
+ * Maps the vertices and edges of a GraphML file to the uris of a dataset. The file is streamed, so the
+ * elements handed to a handler are not part of a graph: only their ids, labels and properties can be read,
+ * and {@code Edge.getVertex(Direction)} gives a vertex with just its id. Walking the graph from an element,
+ * e.g. with {@code getEdges}, {@code getVertices} or {@code query}, throws UnsupportedOperationException.
+ */
 public interface GraphMLHandler {
 
     String getVertex(com.tinkerpop.blueprints.Vertex vertex);
@@ -0,0 +1,225 @@
+package graphlod.dataset;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexQuery;
+import com.tinkerpop.blueprints.util.io.graphml.GraphMLTokens;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Reads GraphML with StAX and hands every node and edge to a listener as soon as its element is closed,
+ * instead of loading the whole file into a TinkerGraph first. Nodes and edges are passed as lightweight
+ * blueprints elements, so existing {@link GraphMLHandler}s keep working. Properties are named and typed
+ * like blueprints' GraphMLReader does. The vertices of an edge only carry their id.
+ *
+ * Edges usually follow their nodes. An edge with an end that wasn't declared yet is held back until the end
+ * of the document, ends that are never declared are passed as vertices without properties before it.
+ */
+class GraphMLStreamReader {
+
+    interface Listener {
+        void vertex(Vertex vertex);
+
+        void edge(Edge edge);
+    }
+
+    private final Listener listener;
+    private final Map<String, String> keyNames = new HashMap<>();
+    private final Map<String, String> keyTypes = new HashMap<>();
+    private final Set<String> vertexIds = new HashSet<>();
+    private final List<StreamedEdge> pendingEdges = new ArrayList<>();
+
+    GraphMLStreamReader(Listener listener) {
+        this.listener = listener;
+    }
+
+    void read(InputStream input) throws IOException {
+        try {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(input);
+            try {
+                read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException {
+        StreamedElement current = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = reader.getLocalName();
+                if (element.equals(GraphMLTokens.KEY)) {
+                    String id = reader.getAttributeValue(null, GraphMLTokens.ID);
+                    keyNames.put(id, reader.getAttributeValue(null, GraphMLTokens.ATTR_NAME));
+                    keyTypes.put(id, reader.getAttributeValue(null, GraphMLTokens.ATTR_TYPE));
+                } else if (element.equals(GraphMLTokens.NODE)) {
+                    current = new StreamedVertex(reader.getAttributeValue(null, GraphMLTokens.ID));
+                } else if (element.equals(GraphMLTokens.EDGE)) {
+                    String label = reader.getAttributeValue(null, GraphMLTokens.LABEL);
+                    current = new StreamedEdge(reader.getAttributeValue(null, GraphMLTokens.ID),
+                            label == null ? GraphMLTokens._DEFAULT : label,
+                            reader.getAttributeValue(null, GraphMLTokens.SOURCE),
+                            reader.getAttributeValue(null, GraphMLTokens.TARGET));
+                } else if (element.equals(GraphMLTokens.DATA) && current != null) {
+                    String key = reader.getAttributeValue(null, GraphMLTokens.KEY);
+                    String name = keyNames.get(key);
+                    if (name != null) {
+                        current.setProperty(name, typeCast(keyTypes.get(key), reader.getElementText()));
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String element = reader.getLocalName();
+                if (element.equals(GraphMLTokens.NODE) && current instanceof StreamedVertex) {
+                    vertexIds.add((String) current.getId());
+                    listener.vertex((StreamedVertex) current);
+                    current = null;
+                } else if (element.equals(GraphMLTokens.EDGE) && current instanceof StreamedEdge) {
+                    StreamedEdge edge = (StreamedEdge) current;
+                    if (vertexIds.contains(edge.source) && vertexIds.contains(edge.target)) {
+                        listener.edge(edge);
+                    } else {
+                        pendingEdges.add(edge);
+                    }
+                    current = null;
+                }
+            }
+        }
+        for (StreamedEdge edge : pendingEdges) {
+            for (String id : Arrays.asList(edge.source, edge.target)) {
+                if (vertexIds.add(id)) {
+                    listener.vertex(new StreamedVertex(id));
+                }
+            }
+        }
+        for (StreamedEdge edge : pendingEdges) {
+            listener.edge(edge);
+        }
+        pendingEdges.clear();
+    }
+
+    private static Object typeCast(String type, String value) {
+        if (type == null || type.equals(GraphMLTokens.STRING)) {
+            return value;
+        } else if (type.equals(GraphMLTokens.FLOAT)) {
+            return Float.valueOf(value);
+        } else if (type.equals(GraphMLTokens.INT)) {
+            return Integer.valueOf(value);
+        } else if (type.equals(GraphMLTokens.DOUBLE)) {
+            return Double.valueOf(value);
+        } else if (type.equals(GraphMLTokens.BOOLEAN)) {
+            return Boolean.valueOf(value);
+        } else if (type.equals(GraphMLTokens.LONG)) {
+            return Long.valueOf(value);
+        }
+        return value;
+    }
+
+    private abstract static class StreamedElement implements com.tinkerpop.blueprints.Element {
+        private final String id;
+        private final Map<String, Object> properties = new HashMap<>();
+
+        StreamedElement(String id) {
+            this.id = id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getProperty(String key) {
+            return (T) properties.get(key);
+        }
+
+        @Override
+        public Set<String> getPropertyKeys() {
+            return new HashSet<>(properties.keySet());
+        }
+
+        @Override
+        public void setProperty(String key, Object value) {
+            properties.put(key, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T removeProperty(String key) {
+            return (T) properties.remove(key);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("streamed elements are not part of a graph");
+        }
+
+        @Override
+        public Object getId() {
+            return id;
+        }
+    }
+
+    private static class StreamedVertex extends StreamedElement implements Vertex {
+        StreamedVertex(String id) {
+            super(id);
+        }
+
+        @Override
+        public Iterable<Edge> getEdges(Direction direction, String... labels) {
+            throw new UnsupportedOperationException("streamed vertices are not part of a graph");
+        }
+
+        @Override
+        public Iterable<Vertex> getVertices(Direction direction, String... labels) {
+            throw new UnsupportedOperationException("streamed vertices are not part of a graph");
+        }
+
+        @Override
+        public VertexQuery query() {
+            throw new UnsupportedOperationException("streamed vertices are not part of a graph");
+        }
+
+        @Override
+        public Edge addEdge(String label, Vertex inVertex) {
+            throw new UnsupportedOperationException("streamed vertices are not part of a graph");
+        }
+    }
+
+    private static class StreamedEdge extends StreamedElement implements Edge {
+        private final String label;
+        private final String source;
+        private final String target;
+
+        StreamedEdge(String id, String label, String source, String target) {
+            super(id);
+            this.label = label;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public Vertex getVertex(Direction direction) {
+            switch (direction) {
+                case OUT:
+                    return new StreamedVertex(source);
+                case IN:
+                    return new StreamedVertex(target);
+                default:
+                    throw new IllegalArgumentException("an edge has no single vertex in direction " + direction);
+            }
+        }
+
+        @Override
+        public String getLabel() {
+            return label;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package graphlod.dataset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the reading of a dataset: triples and bytes read, triples rejected by reason and the size of
+ * the graph. The counters are updated by the ingest threads and can be read at any time, e.g. for the
+ * progress line that is logged while reading. Each pass over the files starts them over, see {@link #start}.
+ */
+public class IngestMetrics {
+    private static Logger logger = LoggerFactory.getLogger(IngestMetrics.class);
+
+    /**
+     * Why a triple doesn't become an edge of the graph.
+     */
+    public enum Rejection {
+        /** a term is no valid uri, including blank nodes and lines that are no triple */
+        INVALID_IRI,
+        /** the object is a literal */
+        LITERAL,
+        /** subject and object are the same */
+        SELF_LOOP,
+        /** subject or object are outside of the namespace of the dataset */
+        OUT_OF_NAMESPACE,
+        /** subject or object are in an excluded namespace */
+        EXCLUDED_NAMESPACE,
+        /** rdf:type, rdfs:subClassOf and owl:equivalentClass go into the class hierarchy instead */
+        SCHEMA
+    }
+
+    private final LongAdder triples = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[Rejection.values().length];
+    private final LongAdder vertices = new LongAdder();
+    private final LongAdder edges = new LongAdder();
+    private volatile String phase = "Reading";
+    private volatile long startNanos = System.nanoTime();
+    private ScheduledExecutorService progress;
+
+    IngestMetrics() {
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Resets the counters for a new pass over the files.
+     */
+    void start(String phase) {
+        this.phase = phase;
+        triples.reset();
+        bytes.reset();
+        for (LongAdder counter : rejected) {
+            counter.reset();
+        }
+        vertices.reset();
+        edges.reset();
+        startNanos = System.nanoTime();
+    }
+
+    void triple() {
+        triples.increment();
+    }
+
+    void reject(Rejection reason) {
+        rejected[reason.ordinal()].increment();
+    }
+
+    void bytes(long count) {
+        bytes.add(count);
+    }
+
+    void vertexAdded() {
+        vertices.increment();
+    }
+
+    void edgeAdded() {
+        edges.increment();
+    }
+
+    void verticesAdded(long count) {
+        vertices.add(count);
+    }
+
+    void edgesAdded(long count) {
+        edges.add(count);
+    }
+
+    /**
+     * Counts the bytes read from the stream.
+     */
+    InputStream count(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytes.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    bytes.add(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * Logs a progress line every period until {@link #stopProgress} is called.
+     */
+    synchronized void startProgress(long period, TimeUnit unit) {
+        if (progress != null) {
+            return;
+        }
+        progress = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ingest-progress");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        progress.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                logger.info(IngestMetrics.this.toString());
+            }
+        }, period, period, unit);
+    }
+
+    synchronized void stopProgress() {
+        if (progress != null) {
+            progress.shutdownNow();
+            progress = null;
+        }
+    }
+
+    /**
+     * Triples read in this pass, accepted or not.
+     */
+    public long getTriples() {
+        return triples.sum();
+    }
+
+    /**
+     * Bytes of N-Triples read in this pass, after decompression.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getRejected(Rejection reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    public long getRejected() {
+        long sum = 0;
+        for (LongAdder counter : rejected) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    public long getVertices() {
+        return vertices.sum();
+    }
+
+    /**
+     * Edges added to the graph, including parallel edges.
+     */
+    public long getEdges() {
+        return edges.sum();
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    public double getTriplesPerSecond() {
+        return perSecond(getTriples());
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(getBytes());
+    }
+
+    /**
+     * Heap in use right now, including garbage that was not collected yet.
+     */
+    public long getEstimatedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private double perSecond(long count) {
+        double seconds = getElapsedSeconds();
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder rejections = new StringBuilder();
+        for (Rejection reason : Rejection.values()) {
+            if (rejections.length() > 0) {
+                rejections.append(", ");
+            }
+            rejections.append(reason.name().toLowerCase()).append(' ').append(getRejected(reason));
+        }
+        return String.format("%s: %d triples (%.0f/s), %.1f MB (%.1f MB/s), rejected %d (%s), %d vertices, %d edges, heap %d MB",
+                phase, getTriples(), getTriplesPerSecond(), getBytes() / 1e6, getBytesPerSecond() / 1e6,
+                getRejected(), rejections, getVertices(), getEdges(), getEstimatedHeapBytes() / (1024 * 1024));
+    }
+}
@@ -0,0 +1,129 @@
+package graphlod.dataset;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The labels of the entities of a dataset as UTF-8 bytes in one arena, indexed by the dictionary id of the
+ * entity. Each label is stored with its length in front, the index holds one long per entity pointing to it,
+ * so there are no String or map entry objects until a label is asked for. The arena is split into pages, so
+ * it can hold more than 2GB. Replacing a label leaves the old bytes behind, which is fine as long as
+ * entities get one label each.
+ */
+class LabelStore {
+    private static final int PAGE_SIZE = 1 << 20;
+    private static final long NO_LABEL = 0; // positions are stored plus one, so a new array means no labels
+
+    private long[] positions = new long[16]; // page index << 32 | offset in page
+    private final List<byte[]> pages = new ArrayList<>();
+    private byte[] page;
+    private int pageFill;
+    private int size;
+
+    boolean contains(int entity) {
+        return entity < positions.length && positions[entity] != NO_LABEL;
+    }
+
+    /**
+     * Returns the label of the entity or null.
+     */
+    String get(int entity) {
+        if (!contains(entity)) {
+            return null;
+        }
+        long position = positions[entity] - 1;
+        byte[] bytes = pages.get((int) (position >>> 32));
+        int offset = (int) position;
+        int length = readLength(bytes, offset);
+        return new String(bytes, offset + lengthSize(length), length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Length of the UTF-8 encoded label of an entity with a label.
+     */
+    int getByteLength(int entity) {
+        long position = positions[entity] - 1;
+        return readLength(pages.get((int) (position >>> 32)), (int) position);
+    }
+
+    /**
+     * Writes the UTF-8 encoded label of an entity with a label, preceded by its length.
+     */
+    void write(int entity, DataOutput out) throws IOException {
+        long position = positions[entity] - 1;
+        byte[] bytes = pages.get((int) (position >>> 32));
+        int offset = (int) position;
+        int length = readLength(bytes, offset);
+        out.writeInt(length);
+        out.write(bytes, offset + lengthSize(length), length);
+    }
+
+    private static int readLength(byte[] bytes, int offset) {
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[offset++];
+            length |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return length;
+    }
+
+    private static int lengthSize(int length) {
+        int size = 1;
+        while (length >= 0x80) {
+            length >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    void put(int entity, String label) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        int needed = bytes.length + 5;
+        if (page == null || page.length - pageFill < needed) {
+            page = new byte[Math.max(PAGE_SIZE, needed)];
+            pages.add(page);
+            pageFill = 0;
+        }
+        if (entity >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(entity + 1, positions.length * 2));
+        }
+        if (positions[entity] == NO_LABEL) {
+            size++;
+        }
+        positions[entity] = ((long) (pages.size() - 1) << 32 | pageFill) + 1;
+        int length = bytes.length;
+        while (length >= 0x80) {
+            page[pageFill++] = (byte) (length | 0x80);
+            length >>>= 7;
+        }
+        page[pageFill++] = (byte) length;
+        System.arraycopy(bytes, 0, page, pageFill, bytes.length);
+        pageFill += bytes.length;
+    }
+
+    /**
+     * Returns the first entity with a label at or after the given one, or -1.
+     */
+    int nextEntity(int entity) {
+        for (int i = entity; i < positions.length; i++) {
+            if (positions[i] != NO_LABEL) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of entities with a label.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,262 @@
+package graphlod.dataset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads N-Triples by tokenizing the memory mapped file instead of going through NxParser. Streams that can't
+ * be mapped, like decompressed files, are tokenized from a buffer the same way.
+ * Terms stay byte ranges of the file until {@link Dataset#classifyTriple} accepted the triple, so lines with
+ * literals or blank nodes, invalid uris, loops and other rejected triples never create a String.
+ * Uris already in the dictionary are taken from there instead of being decoded again.
+ * Unlike NxParser, a literal is never taken as a uri, even if its value looks like one.
+ */
+class MappedTripleReader {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Receives the accepted triples together with their classification.
+     */
+    interface TripleHandler {
+        void triple(String subjectUri, String propertyUri, String objectUri, int kind);
+    }
+
+    private final Dataset dataset;
+    private final IngestMetrics metrics;
+    private final UriDictionary dictionary;
+    private final Term subject = new Term();
+    private final Term property = new Term();
+    private final Term object = new Term();
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @param dictionary dictionary to look up known uris or null, it is only read from the calling thread
+     */
+    MappedTripleReader(Dataset dataset, UriDictionary dictionary) {
+        this.dataset = dataset;
+        this.metrics = dataset.getIngestMetrics();
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Reads the lines between the two offsets of the file, start has to be the beginning of a line.
+     */
+    void read(String file, long start, long end, TripleHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            long position = start;
+            long windowSize = WINDOW_SIZE;
+            while (position < end) {
+                int length = (int) Math.min(windowSize, end - position);
+                boolean last = position + length == end;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int offset = 0;
+                while (offset < length) {
+                    int lineEnd = indexOf(buffer, (byte) '\n', offset, length);
+                    if (lineEnd < 0) {
+                        if (!last) {
+                            // the line continues in the next window
+                            break;
+                        }
+                        lineEnd = length;
+                    }
+                    readLine(buffer, offset, lineEnd, handler);
+                    offset = lineEnd + 1;
+                }
+                if (offset == 0) {
+                    // a single line doesn't fit into the window
+                    windowSize *= 2;
+                    continue;
+                }
+                position += Math.min(offset, length);
+                metrics.bytes(Math.min(offset, length));
+            }
+        }
+    }
+
+    /**
+     * Reads the triples of a stream, e.g. a decompressed file, through a buffer instead of a mapping. Unlike
+     * reading a file, the bytes are not counted in the metrics, the caller knows best what the stream is.
+     */
+    void read(InputStream in, TripleHandler handler) throws IOException {
+        byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int filled = 0;
+        while (true) {
+            int read = in.read(bytes, filled, bytes.length - filled);
+            if (read < 0) {
+                if (filled > 0) {
+                    readLine(buffer, 0, filled, handler);
+                }
+                return;
+            }
+            filled += read;
+            int offset = 0;
+            int lineEnd;
+            while ((lineEnd = indexOf(buffer, (byte) '\n', offset, filled)) >= 0) {
+                readLine(buffer, offset, lineEnd, handler);
+                offset = lineEnd + 1;
+            }
+            // keep the incomplete last line for the next read
+            System.arraycopy(bytes, offset, bytes, 0, filled - offset);
+            filled -= offset;
+            if (filled == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                buffer = ByteBuffer.wrap(bytes);
+            }
+        }
+    }
+
+    private void readLine(ByteBuffer buffer, int start, int end, TripleHandler handler) {
+        int position = skipWhitespace(buffer, start, end);
+        if (position == end || buffer.get(position) == '#') {
+            return;
+        }
+        position = readUri(buffer, position, end, subject);
+        if (position < 0) {
+            rejectLine(IngestMetrics.Rejection.INVALID_IRI);
+            return;
+        }
+        position = readUri(buffer, skipWhitespace(buffer, position, end), end, property);
+        if (position < 0) {
+            rejectLine(IngestMetrics.Rejection.INVALID_IRI);
+            return;
+        }
+        int objectStart = skipWhitespace(buffer, position, end);
+        position = readUri(buffer, objectStart, end, object);
+        if (position < 0) {
+            boolean literal = objectStart < end && buffer.get(objectStart) == '"';
+            rejectLine(literal ? IngestMetrics.Rejection.LITERAL : IngestMetrics.Rejection.INVALID_IRI);
+            return;
+        }
+        position = skipWhitespace(buffer, position, end);
+        if (position == end || buffer.get(position) != '.') {
+            rejectLine(IngestMetrics.Rejection.INVALID_IRI);
+            return;
+        }
+
+        int kind = dataset.classifyTriple(subject.view(), property.view(), object.view());
+        if (kind != Dataset.TRIPLE_INVALID) {
+            handler.triple(toString(subject), toString(property), toString(object), kind);
+        }
+    }
+
+    private void rejectLine(IngestMetrics.Rejection reason) {
+        metrics.triple();
+        metrics.reject(reason);
+    }
+
+    /**
+     * Reads a uri in angle brackets and returns the position after it, or -1 for anything else.
+     * Literals and blank nodes end up here as well, the line is dropped without looking at them.
+     */
+    private static int readUri(ByteBuffer buffer, int position, int end, Term term) {
+        if (position == end || buffer.get(position) != '<') {
+            return -1;
+        }
+        boolean ascii = true;
+        for (int i = position + 1; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '>') {
+                term.set(buffer, position + 1, i, ascii);
+                return i + 1;
+            }
+            if (b < 0) {
+                ascii = false;
+            }
+        }
+        return -1;
+    }
+
+    private String toString(Term term) {
+        if (term.string != null) {
+            return term.string;
+        }
+        if (dictionary != null) {
+            int id = dictionary.getId(term);
+            if (id != UriDictionary.NOT_FOUND) {
+                return dictionary.getUri(id);
+            }
+        }
+        return term.decode();
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int position, int end) {
+        while (position < end && (buffer.get(position) == ' ' || buffer.get(position) == '\t' || buffer.get(position) == '\r')) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A uri as a range of the mapped file. Pure ASCII uris are read as chars directly, others are decoded
+     * to a String before they are looked at.
+     */
+    private class Term implements CharSequence {
+        private ByteBuffer buffer;
+        private int start;
+        private int end;
+        private String string;
+
+        void set(ByteBuffer buffer, int start, int end, boolean ascii) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.string = null;
+            if (!ascii) {
+                this.string = decode();
+            }
+        }
+
+        CharSequence view() {
+            return string != null ? string : this;
+        }
+
+        String decode() {
+            int length = end - start;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = buffer.get(start + i);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return decode().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return string != null ? string : decode();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package graphlod.dataset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Matches uris against the namespace, the ontology namespace and the excluded namespaces of a dataset
+ * in a single walk over a prefix trie, so the cost per uri doesn't grow with the number of namespaces.
+ * The result of {@link #match} is packed into an int and read with the static accessors.
+ * Instances are immutable and can be shared between ingest threads.
+ */
+class NamespaceMatcher {
+    static final int NOT_EXCLUDED = Integer.MAX_VALUE >>> 2;
+
+    private static final int IN_NAMESPACE = 1;
+    private static final int IN_ONTOLOGY_NAMESPACE = 2;
+
+    // the trie, children of a node are stored consecutively and sorted by their character
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] matches; // result bits for prefixes ending at a node
+
+    NamespaceMatcher(String namespace, String ontologyNamespace, Collection<String> excludedNamespaces) {
+        Node root = new Node();
+        root.insert(namespace).flags |= IN_NAMESPACE;
+        if (ontologyNamespace != null) {
+            root.insert(ontologyNamespace).flags |= IN_ONTOLOGY_NAMESPACE;
+        }
+        int index = 0;
+        for (String excluded : excludedNamespaces) {
+            Node node = root.insert(excluded);
+            node.excluded = Math.min(node.excluded, index++);
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(root);
+        // breadth first, so the children of every node end up next to each other
+        for (int i = 0; i < nodes.size(); i++) {
+            nodes.addAll(nodes.get(i).children.values());
+        }
+        labels = new char[nodes.size()];
+        firstChild = new int[nodes.size()];
+        childCount = new int[nodes.size()];
+        matches = new int[nodes.size()];
+        int next = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            labels[i] = node.label;
+            matches[i] = (Math.min(node.excluded, NOT_EXCLUDED) << 2) | node.flags;
+            firstChild[i] = next;
+            childCount[i] = node.children.size();
+            next += node.children.size();
+        }
+    }
+
+    /**
+     * Returns which of the namespaces are prefixes of the uri.
+     */
+    int match(CharSequence uri) {
+        int result = matches[0];
+        int node = 0;
+        for (int i = 0; i < uri.length() && childCount[node] > 0; i++) {
+            node = findChild(node, uri.charAt(i));
+            if (node < 0) {
+                break;
+            }
+            result = combine(result, matches[node]);
+        }
+        return result;
+    }
+
+    static boolean inNamespace(int match) {
+        return (match & IN_NAMESPACE) != 0;
+    }
+
+    static boolean inOntologyNamespace(int match) {
+        return (match & IN_ONTOLOGY_NAMESPACE) != 0;
+    }
+
+    /**
+     * Returns the position of the first excluded namespace matching the uri or {@link #NOT_EXCLUDED}.
+     */
+    static int excludedIndex(int match) {
+        return match >>> 2;
+    }
+
+    private static int combine(int a, int b) {
+        int excluded = Math.min(excludedIndex(a), excludedIndex(b));
+        return (excluded << 2) | ((a | b) & (IN_NAMESPACE | IN_ONTOLOGY_NAMESPACE));
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < c) {
+                low = mid + 1;
+            } else if (labels[mid] > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static class Node {
+        char label;
+        int flags;
+        int excluded = NOT_EXCLUDED;
+        final TreeMap<Character, Node> children = new TreeMap<>();
+
+        Node insert(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    child.label = c;
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            return node;
+        }
+    }
+}
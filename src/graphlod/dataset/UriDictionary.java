@@ -0,0 +1,117 @@
+package graphlod.dataset;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids to URIs. Each URI is kept exactly once, so all structures of a dataset can share
+ * the same String instance or just store the id.
+ * Uses open addressing instead of a HashMap to avoid an entry object and a boxed Integer per URI.
+ */
+public class UriDictionary {
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private String[] uris = new String[INITIAL_CAPACITY];
+    private int[] table = new int[INITIAL_CAPACITY * 2]; // id + 1 of the uri hashed to a slot, 0 if free
+    private int size = 0;
+
+    /**
+     * Returns the id of the uri, assigning the next free id if it is new.
+     */
+    public int encode(String uri) {
+        int slot = slot(uri);
+        int id = table[slot] - 1;
+        if (id != NOT_FOUND) {
+            return id;
+        }
+        id = size++;
+        if (id == uris.length) {
+            uris = Arrays.copyOf(uris, uris.length * 2);
+        }
+        uris[id] = uri;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of the uri or {@link #NOT_FOUND}.
+     */
+    public int getId(String uri) {
+        return table[slot(uri)] - 1;
+    }
+
+    /**
+     * Returns the id of the uri given as any CharSequence or {@link #NOT_FOUND}, without creating a String.
+     */
+    public int getId(CharSequence uri) {
+        int mask = table.length - 1;
+        int slot = hash(stringHashCode(uri)) & mask;
+        while (true) {
+            int id = table[slot] - 1;
+            if (id == NOT_FOUND || uris[id].contentEquals(uri)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public String getUri(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("unknown id: " + id);
+        }
+        return uris[id];
+    }
+
+    /**
+     * Returns the stored instance equal to the uri, adding it if necessary.
+     */
+    public String canonical(String uri) {
+        int id = encode(uri); // may replace the array
+        return uris[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(String uri) {
+        int mask = table.length - 1;
+        int slot = hash(uri.hashCode()) & mask;
+        while (true) {
+            int id = table[slot] - 1;
+            if (id == NOT_FOUND || uris[id].equals(uri)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(uris[id].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int hash(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int stringHashCode(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+}
@@ -0,0 +1,252 @@
+package graphlod.dataset;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.BitSet;
+
+/**
+ * Decides if a node is accepted by {@code new URL(String)} without creating the url or an exception.
+ * Works on any CharSequence, so nodes can be checked before a String is created for them.
+ * http and https uris, which are nearly all nodes of a dataset, are checked in place by following the
+ * rules java.net.URL and URLStreamHandler apply while parsing. Everything else, e.g. other protocols or
+ * IPv6 hosts, is passed on to java.net.URL, so the result is always the same as constructing the url.
+ */
+public final class UriValidator {
+    // characters the running JDK's java.net.URL rejects in the host of http(s) urls, this differs between releases
+    private static final BitSet ILLEGAL_HOST_CHARACTERS = illegalHostCharacters();
+
+    private UriValidator() {
+    }
+
+    /**
+     * Asks java.net.URL about every character in a host once. Characters that end the host never get to
+     * {@link #isValidHost} and are skipped.
+     */
+    private static BitSet illegalHostCharacters() {
+        BitSet illegal = new BitSet(Character.MAX_VALUE + 1);
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (c == '/' || c == ':' || c == '?' || c == '#' || c == '@') {
+                continue;
+            }
+            if (!isValidUrl("http://a" + (char) c + "b/")) {
+                illegal.set(c);
+            }
+        }
+        return illegal;
+    }
+
+    public static boolean isValid(CharSequence spec) {
+        if (spec == null) {
+            return false;
+        }
+        int limit = spec.length();
+        while (limit > 0 && spec.charAt(limit - 1) <= ' ') {
+            limit--;
+        }
+        int start = 0;
+        while (start < limit && spec.charAt(start) <= ' ') {
+            start++;
+        }
+        if (regionMatchesIgnoreCase(spec, start, "url:")) {
+            start += 4;
+        }
+        if (start < spec.length() && spec.charAt(start) == '#') {
+            return false;
+        }
+
+        int colon = -1;
+        boolean ascii = true;
+        for (int i = start; i < limit; i++) {
+            char c = spec.charAt(i);
+            if (c == '/') {
+                break;
+            }
+            if (c == ':') {
+                colon = i;
+                break;
+            }
+            if (c >= 0x80) {
+                ascii = false;
+            }
+        }
+        if (colon < 0) {
+            return false;
+        }
+        if (!ascii) {
+            // lower casing non ascii protocols depends on the locale
+            return isValidUrl(spec);
+        }
+        if (!isValidProtocol(spec, start, colon)) {
+            return false;
+        }
+        if (isHttp(spec, start, colon)) {
+            return isValidHierarchicalPart(spec, colon + 1, limit);
+        }
+        return isValidUrl(spec);
+    }
+
+    private static boolean isValidUrl(CharSequence spec) {
+        try {
+            new URL(spec.toString());
+            return true;
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Same as {@code String.regionMatches(true, start, other, 0, other.length())}.
+     */
+    private static boolean regionMatchesIgnoreCase(CharSequence spec, int start, String other) {
+        if (start < 0 || start > spec.length() - other.length()) {
+            return false;
+        }
+        for (int i = 0; i < other.length(); i++) {
+            char c1 = spec.charAt(start + i);
+            char c2 = other.charAt(i);
+            if (c1 == c2) {
+                continue;
+            }
+            char u1 = Character.toUpperCase(c1);
+            char u2 = Character.toUpperCase(c2);
+            if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidProtocol(CharSequence spec, int start, int end) {
+        if (end - start < 1 || !isAsciiLetter(spec.charAt(start))) {
+            return false;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = spec.charAt(i);
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '.' && c != '+' && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isHttp(CharSequence spec, int start, int end) {
+        int length = end - start;
+        if (length != 4 && length != 5) {
+            return false;
+        }
+        return (spec.charAt(start) | 0x20) == 'h'
+                && (spec.charAt(start + 1) | 0x20) == 't'
+                && (spec.charAt(start + 2) | 0x20) == 't'
+                && (spec.charAt(start + 3) | 0x20) == 'p'
+                && (length == 4 || (spec.charAt(start + 4) | 0x20) == 's');
+    }
+
+    /**
+     * Follows URLStreamHandler.parseURL for urls without a context. Only the port and the host can make
+     * such a url invalid, hosts in brackets are left to java.net.URL.
+     */
+    private static boolean isValidHierarchicalPart(CharSequence spec, int start, int limit) {
+        int ref = indexOf(spec, '#', start, spec.length());
+        if (ref >= 0) {
+            limit = ref;
+        }
+        if (start < limit) {
+            int queryStart = indexOf(spec, '?', 0, spec.length());
+            if (queryStart != -1 && queryStart < limit) {
+                limit = queryStart;
+            }
+        }
+
+        boolean isUncName = start <= limit - 4 && spec.charAt(start) == '/' && spec.charAt(start + 1) == '/'
+                && spec.charAt(start + 2) == '/' && spec.charAt(start + 3) == '/';
+        if (isUncName || start > limit - 2 || spec.charAt(start) != '/' || spec.charAt(start + 1) != '/') {
+            return true;
+        }
+
+        int authorityStart = start + 2;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < limit && spec.charAt(authorityEnd) != '/') {
+            authorityEnd++;
+        }
+        int hostStart = authorityStart;
+        int at = indexOf(spec, '@', authorityStart, authorityEnd);
+        if (at >= 0) {
+            if (indexOf(spec, '@', at + 1, authorityEnd) >= 0) {
+                // more than one '@' leaves the url without a host
+                return true;
+            }
+            hostStart = at + 1;
+        }
+        if (hostStart < authorityEnd && spec.charAt(hostStart) == '[') {
+            return isValidUrl(spec);
+        }
+        int hostEnd = authorityEnd;
+        int portSeparator = indexOf(spec, ':', hostStart, authorityEnd);
+        if (portSeparator >= 0) {
+            if (authorityEnd > portSeparator + 1 && !isValidPort(spec, portSeparator + 1, authorityEnd)) {
+                return false;
+            }
+            hostEnd = portSeparator;
+        }
+        return isValidHost(spec, hostStart, hostEnd);
+    }
+
+    private static boolean isValidHost(CharSequence spec, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (ILLEGAL_HOST_CHARACTERS.get(spec.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence spec, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (spec.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same as {@code Integer.parseInt(spec.substring(start, end)) >= -1}.
+     */
+    private static boolean isValidPort(CharSequence spec, int start, int end) {
+        boolean negative = false;
+        int limit = -Integer.MAX_VALUE;
+        int i = start;
+        char first = spec.charAt(i);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = Integer.MIN_VALUE;
+            } else if (first != '+') {
+                return false;
+            }
+            if (end - start == 1) {
+                return false;
+            }
+            i++;
+        }
+        int multmin = limit / 10;
+        int result = 0;
+        while (i < end) {
+            int digit = Character.digit(spec.charAt(i++), 10);
+            if (digit < 0 || result < multmin) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        int port = negative ? result : -result;
+        return port >= -1;
+    }
+}
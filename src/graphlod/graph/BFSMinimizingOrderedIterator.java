@@ -1,7 +1,7 @@
 package graphlod.graph;
 
 import graphlod.dataset.Dataset;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.SimpleGraph;
 
@@ -14,7 +14,7 @@ public class BFSMinimizingOrderedIterator<V, E>
 {
 
     private Deque<V> queue = new ArrayDeque<V>();
-    private SimpleGraph<String, DefaultEdge> minimizedGraph;
+    private SimpleGraph<String, Edge> minimizedGraph;
 
 
     /**
@@ -61,7 +61,7 @@ public class BFSMinimizingOrderedIterator<V, E>
         queue.add(vertex);
 
         if (edge == null) {
-            this.minimizedGraph = new SimpleGraph<>(DefaultEdge.class);
+            this.minimizedGraph = new SimpleGraph<>(Edge.class);
             this.minimizedGraph.addVertex(vertex.toString());
         } else {
             this.minimizedGraph.addVertex(vertex.toString());
@@ -84,7 +84,7 @@ public class BFSMinimizingOrderedIterator<V, E>
         return queue.removeFirst();
     }
 
-    public SimpleGraph<String,DefaultEdge> getMinimizedGraph() {
+    public SimpleGraph<String,Edge> getMinimizedGraph() {
         return minimizedGraph;
     }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package graphlod.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The blocks (maximal biconnected subgraphs) and articulation points of a {@link CsrGraph}, ignoring edge
+ * directions, parallel edges and self loops. Found with the depth first search of Hopcroft and Tarjan in
+ * O(n + m), run with explicit stacks so long paths don't overflow the call stack. A vertex without other
+ * neighbours is a block of its own.
+ */
+public class BiconnectedComponents {
+    private final CsrGraph csr;
+    private final int[] slotBlocks;
+    private final int[] singletonBlocks;
+    private final BitSet articulationPoints = new BitSet();
+    private int[] blockSizes = new int[16];
+    private int blockCount;
+
+    public BiconnectedComponents(CsrGraph csr) {
+        this.csr = csr;
+        int n = csr.getVertexCount();
+        int slots = n == 0 ? 0 : csr.neighbourEnd(n - 1);
+        slotBlocks = new int[slots];
+        Arrays.fill(slotBlocks, -1);
+        singletonBlocks = new int[n];
+        Arrays.fill(singletonBlocks, -1);
+
+        int[] discovery = new int[n];
+        Arrays.fill(discovery, -1);
+        int[] low = new int[n];
+        int[] parents = new int[n];
+        int[] treeSlots = new int[n]; // the slot of the tree edge from the parent
+        int[] next = new int[n]; // the next neighbour slot to look at
+        int[] stack = new int[n];
+        int[] edgeStack = new int[slots];
+        int[] edgeSources = new int[slots];
+        int[] lastBlock = new int[n]; // to count each vertex of a block once
+        Arrays.fill(lastBlock, -1);
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            int edges = 0;
+            int rootChildren = 0;
+            stack[depth++] = root;
+            discovery[root] = low[root] = time++;
+            parents[root] = -1;
+            next[root] = csr.neighbourStart(root);
+            while (depth > 0) {
+                int v = stack[depth - 1];
+                if (next[v] < csr.neighbourEnd(v)) {
+                    int i = next[v]++;
+                    int u = csr.neighbour(i);
+                    if (u == v) {
+                        continue;
+                    }
+                    if (discovery[u] < 0) {
+                        edgeStack[edges] = i;
+                        edgeSources[edges++] = v;
+                        parents[u] = v;
+                        treeSlots[u] = i;
+                        discovery[u] = low[u] = time++;
+                        next[u] = csr.neighbourStart(u);
+                        stack[depth++] = u;
+                    } else if (u != parents[v] && discovery[u] < discovery[v]) {
+                        // back edge to an ancestor, each is pushed once from its lower end
+                        edgeStack[edges] = i;
+                        edgeSources[edges++] = v;
+                        low[v] = Math.min(low[v], discovery[u]);
+                    }
+                    continue;
+                }
+                depth--;
+                int p = parents[v];
+                if (p < 0) {
+                    continue;
+                }
+                low[p] = Math.min(low[p], low[v]);
+                if (low[v] >= discovery[p]) {
+                    // p separates the subtree of v, the edges pushed since the tree edge p-v are one block
+                    int block = newBlock();
+                    int slot;
+                    do {
+                        slot = edgeStack[--edges];
+                        slotBlocks[slot] = block;
+                        blockSizes[block] += count(edgeSources[edges], block, lastBlock);
+                        blockSizes[block] += count(csr.neighbour(slot), block, lastBlock);
+                    } while (slot != treeSlots[v]);
+                    if (p != root) {
+                        articulationPoints.set(p);
+                    } else {
+                        rootChildren++;
+                    }
+                }
+            }
+            if (rootChildren > 1) {
+                articulationPoints.set(root);
+            } else if (rootChildren == 0) {
+                int block = newBlock();
+                singletonBlocks[root] = block;
+                blockSizes[block] = 1;
+            }
+        }
+
+        // each edge got its block on one end only
+        for (int v = 0; v < n; v++) {
+            for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+                int u = csr.neighbour(i);
+                if (slotBlocks[i] < 0 && u != v) {
+                    slotBlocks[i] = slotBlocks[csr.neighbourIndex(u, v)];
+                }
+            }
+        }
+        blockSizes = Arrays.copyOf(blockSizes, blockCount);
+    }
+
+    private int newBlock() {
+        if (blockCount == blockSizes.length) {
+            blockSizes = Arrays.copyOf(blockSizes, blockCount * 2);
+        }
+        return blockCount++;
+    }
+
+    private static int count(int vertex, int block, int[] lastBlock) {
+        if (lastBlock[vertex] == block) {
+            return 0;
+        }
+        lastBlock[vertex] = block;
+        return 1;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Number of vertices of each block.
+     */
+    public int[] getBlockSizes() {
+        return blockSizes.clone();
+    }
+
+    /**
+     * The block of the edge at neighbour slot i of the {@link CsrGraph}, -1 for a self loop.
+     */
+    public int getSlotBlock(int i) {
+        return slotBlocks[i];
+    }
+
+    /**
+     * The block of v if v has no other neighbours, -1 otherwise.
+     */
+    public int getSingletonBlock(int v) {
+        return singletonBlocks[v];
+    }
+
+    /**
+     * The block of each edge of the {@link CsrGraph}, indexed like {@link CsrGraph#outTarget}, -1 for self loops.
+     */
+    public int[] getEdgeBlocks() {
+        int[] blocks = new int[csr.getEdgeCount()];
+        for (int v = 0; v < csr.getVertexCount(); v++) {
+            for (int i = csr.outStart(v); i < csr.outEnd(v); i++) {
+                int u = csr.outTarget(i);
+                blocks[i] = u == v ? -1 : slotBlocks[csr.neighbourIndex(v, u)];
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Whether removing v splits its component.
+     */
+    public boolean isArticulationPoint(int v) {
+        return articulationPoints.get(v);
+    }
+
+    public int getArticulationPointCount() {
+        return articulationPoints.cardinality();
+    }
+}
@@ -0,0 +1,77 @@
+package graphlod.graph;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Disjoint sets of the ints 0 to size - 1 that several threads can union at the same time without locks.
+ * A root is only ever linked below a smaller root with a compare-and-set, so the root of each set is its
+ * smallest element once all unions are done. Finding compresses the path by halving it.
+ */
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parents;
+
+    public ConcurrentUnionFind(int size) {
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.set(i, i);
+        }
+    }
+
+    public int size() {
+        return parents.length();
+    }
+
+    /**
+     * Returns the current root of the set of x.
+     */
+    public int find(int x) {
+        while (true) {
+            int parent = parents.get(x);
+            if (parent == x) {
+                return x;
+            }
+            int grandparent = parents.get(parent);
+            if (parent != grandparent) {
+                // a failed halving is harmless, another thread changed the path already
+                parents.compareAndSet(x, parent, grandparent);
+            }
+            x = grandparent;
+        }
+    }
+
+    /**
+     * Merges the sets of a and b.
+     */
+    public void union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) {
+                return;
+            }
+            if (a > b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            if (parents.compareAndSet(b, b, a)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Numbers the sets in the order of their smallest element. Must not run concurrently with unions.
+     * @return the number of the set of each element
+     */
+    public int[] toSetIds() {
+        int[] ids = new int[size()];
+        int count = 0;
+        for (int x = 0; x < ids.length; x++) {
+            int root = find(x);
+            // the root is the smallest element, so it got its number already
+            ids[x] = root == x ? count++ : ids[root];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,162 @@
+package graphlod.graph;
+
+import graphlod.dataset.UriDictionary;
+import org.jgrapht.DirectedGraph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed sparse row snapshot of a directed graph.
+ * Vertices are numbered in the iteration order of the source graph's vertex set. The outgoing, incoming and
+ * undirected adjacency of vertex v are the targets between start(v) and end(v) of the respective arrays.
+ * Parallel edges are kept in the out- and in-adjacency, the undirected adjacency holds each neighbour once.
+ */
+public class CsrGraph {
+    private final UriDictionary vertices = new UriDictionary();
+    private final int edgeCount;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+    private final int[] neighbourOffsets;
+    private final int[] neighbourTargets;
+
+    public <E> CsrGraph(DirectedGraph<String, E> graph) {
+        for (String vertex : graph.vertexSet()) {
+            vertices.encode(vertex);
+        }
+        int n = vertices.size();
+        edgeCount = graph.edgeSet().size();
+
+        outOffsets = new int[n + 1];
+        inOffsets = new int[n + 1];
+        outTargets = new int[edgeCount];
+        inTargets = new int[edgeCount];
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] = outOffsets[v] + graph.outDegreeOf(vertices.getUri(v));
+            inOffsets[v + 1] = inOffsets[v] + graph.inDegreeOf(vertices.getUri(v));
+        }
+        for (int v = 0; v < n; v++) {
+            String vertex = vertices.getUri(v);
+            int i = outOffsets[v];
+            for (E edge : graph.outgoingEdgesOf(vertex)) {
+                outTargets[i++] = vertices.getId(graph.getEdgeTarget(edge));
+            }
+            i = inOffsets[v];
+            for (E edge : graph.incomingEdgesOf(vertex)) {
+                inTargets[i++] = vertices.getId(graph.getEdgeSource(edge));
+            }
+        }
+
+        neighbourOffsets = new int[n + 1];
+        int[] targets = new int[2 * edgeCount];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            int start = size;
+            for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+                targets[size++] = outTargets[i];
+            }
+            for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+                targets[size++] = inTargets[i];
+            }
+            Arrays.sort(targets, start, size);
+            int unique = start;
+            for (int i = start; i < size; i++) {
+                if (unique == start || targets[unique - 1] != targets[i]) {
+                    targets[unique++] = targets[i];
+                }
+            }
+            size = unique;
+            neighbourOffsets[v + 1] = size;
+        }
+        neighbourTargets = Arrays.copyOf(targets, size);
+    }
+
+    public int getVertexCount() {
+        return vertices.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the index of the vertex or {@link UriDictionary#NOT_FOUND}.
+     */
+    public int indexOf(String vertex) {
+        return vertices.getId(vertex);
+    }
+
+    public String getVertex(int v) {
+        return vertices.getUri(v);
+    }
+
+    public int outStart(int v) {
+        return outOffsets[v];
+    }
+
+    public int outEnd(int v) {
+        return outOffsets[v + 1];
+    }
+
+    public int outTarget(int i) {
+        return outTargets[i];
+    }
+
+    public int inStart(int v) {
+        return inOffsets[v];
+    }
+
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    public int inSource(int i) {
+        return inTargets[i];
+    }
+
+    /**
+     * The distinct vertices linked to v in either direction, including v itself if it has a self loop.
+     */
+    public int neighbourStart(int v) {
+        return neighbourOffsets[v];
+    }
+
+    public int neighbourEnd(int v) {
+        return neighbourOffsets[v + 1];
+    }
+
+    public int neighbour(int i) {
+        return neighbourTargets[i];
+    }
+
+    /**
+     * Returns the slot of u among the neighbours of v, or -1 if they are not linked.
+     */
+    public int neighbourIndex(int v, int u) {
+        int i = Arrays.binarySearch(neighbourTargets, neighbourOffsets[v], neighbourOffsets[v + 1], u);
+        return i < 0 ? -1 : i;
+    }
+
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    /**
+     * Number of distinct edges touching v, a self loop is counted once.
+     */
+    public int incidentEdgeCount(int v) {
+        int count = outDegree(v) + inDegree(v);
+        for (int i = outOffsets[v]; i < outOffsets[v + 1]; i++) {
+            if (outTargets[i] == v) {
+                count--;
+            }
+        }
+        return count;
+    }
+}
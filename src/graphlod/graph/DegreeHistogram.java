@@ -0,0 +1,119 @@
+package graphlod.graph;
+
+import com.google.common.base.MoreObjects;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Number of vertices per degree, indexed by the degree.
+ */
+public class DegreeHistogram {
+    private final int[] counts;
+    private final int vertexCount;
+
+    public DegreeHistogram(DegreeSequence degrees) {
+        counts = new int[degrees.size() == 0 ? 0 : degrees.getMax() + 1];
+        for (int v = 0; v < degrees.size(); v++) {
+            counts[degrees.get(v)]++;
+        }
+        vertexCount = degrees.size();
+    }
+
+    /**
+     * Number of vertices with the degree.
+     */
+    public int getCount(int degree) {
+        return degree < counts.length ? counts[degree] : 0;
+    }
+
+    /**
+     * The highest degree, -1 if there are no vertices.
+     */
+    public int getMaxDegree() {
+        return counts.length - 1;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Groups the degrees from 1 up into bins that grow by base each, [1, base), [base, base²) and so on,
+     * which shows a heavy tail as a line in a log-log plot. Vertices of degree 0 are left out.
+     */
+    public List<Bin> getLogBins(double base) {
+        Validate.isTrue(base > 1, "base must be greater than 1");
+        List<Bin> bins = new ArrayList<>();
+        double bound = 1;
+        int start = 1;
+        while (start < counts.length) {
+            bound *= base;
+            int end = Math.max(start + 1, (int) Math.ceil(bound));
+            int count = 0;
+            for (int degree = start; degree < Math.min(end, counts.length); degree++) {
+                count += counts[degree];
+            }
+            bins.add(new Bin(start, end, count));
+            start = end;
+        }
+        return bins;
+    }
+
+    /**
+     * Maximum likelihood estimate of the exponent alpha of a power law p(k) ~ k^-alpha fitted to the degrees
+     * from minDegree up, with the approximation for discrete data of Clauset, Shalizi and Newman:
+     * alpha = 1 + n / sum(ln(k / (minDegree - 0.5))). The approximation gets good from a minDegree of about 6.
+     * @return NaN if no vertex has at least minDegree
+     */
+    public double estimatePowerLawExponent(int minDegree) {
+        Validate.isTrue(minDegree >= 1, "minDegree must be at least 1");
+        long n = 0;
+        double sum = 0;
+        for (int degree = minDegree; degree < counts.length; degree++) {
+            n += counts[degree];
+            sum += counts[degree] * Math.log(degree / (minDegree - 0.5));
+        }
+        return n == 0 ? Double.NaN : 1 + n / sum;
+    }
+
+    /**
+     * The vertices with a degree from start (inclusive) to end (exclusive).
+     */
+    public static class Bin {
+        private final int start;
+        private final int end;
+        private final int count;
+
+        Bin(int start, int end, int count) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Vertices per degree in the bin, to compare bins of different widths.
+         */
+        public double getDensity() {
+            return (double) count / (end - start);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("start", start).add("end", end).add("count", count).toString();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package graphlod.graph;
+
+import com.google.common.primitives.Ints;
+
+import java.util.List;
+
+/**
+ * One degree per vertex index of a {@link CsrGraph}, with minimum, maximum and sum kept up to date while
+ * it is filled.
+ */
+public class DegreeSequence {
+    private final int[] degrees;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private long sum;
+
+    public DegreeSequence(int size) {
+        degrees = new int[size];
+    }
+
+    /**
+     * Sets the degree of v, each vertex must be set once.
+     */
+    public void set(int v, int degree) {
+        degrees[v] = degree;
+        min = Math.min(min, degree);
+        max = Math.max(max, degree);
+        sum += degree;
+    }
+
+    public int get(int v) {
+        return degrees[v];
+    }
+
+    public int size() {
+        return degrees.length;
+    }
+
+    /**
+     * The degrees as a list view, boxing each one when it is read.
+     */
+    public List<Integer> asList() {
+        return Ints.asList(degrees);
+    }
+
+    /**
+     * 0 if there are no vertices.
+     */
+    public int getMin() {
+        return degrees.length == 0 ? 0 : min;
+    }
+
+    /**
+     * 0 if there are no vertices.
+     */
+    public int getMax() {
+        return degrees.length == 0 ? 0 : max;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return degrees.length == 0 ? 0 : (double) sum / degrees.length;
+    }
+
+    /**
+     * The count vertices with the highest degrees in ascending order of degree, from a heap of count vertices
+     * in one pass. Of vertices with the same degree the later ones win and come last, like in
+     * {@link graphlod.utils.CollectionUtils#maxValues}.
+     */
+    public int[] top(int count) {
+        int size = Math.min(count, degrees.length);
+        if (size <= 0) {
+            return new int[0];
+        }
+        // min heap on (degree, vertex), the root is the weakest vertex kept
+        int[] heap = new int[size];
+        int filled = 0;
+        for (int v = 0; v < degrees.length; v++) {
+            if (filled < size) {
+                heap[filled] = v;
+                siftUp(heap, filled++);
+            } else if (degrees[v] >= degrees[heap[0]]) {
+                // v comes after every vertex in the heap, so the same degree is enough
+                heap[0] = v;
+                siftDown(heap, 0, size);
+            }
+        }
+        for (int end = size - 1; end > 0; end--) {
+            int weakest = heap[0];
+            heap[0] = heap[end];
+            heap[end] = weakest;
+            siftDown(heap, 0, end);
+        }
+        // taking out the weakest last to first leaves the strongest in front
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int t = heap[i];
+            heap[i] = heap[j];
+            heap[j] = t;
+        }
+        return heap;
+    }
+
+    private boolean less(int a, int b) {
+        return degrees[a] < degrees[b] || (degrees[a] == degrees[b] && a < b);
+    }
+
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!less(heap[i], heap[parent])) {
+                return;
+            }
+            int t = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = t;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int i, int size) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], heap[i])) {
+                return;
+            }
+            int t = heap[i];
+            heap[i] = heap[child];
+            heap[child] = t;
+            i = child;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package graphlod.graph;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Lower and upper bound on the diameter of a graph. Both are the same if the diameter is known exactly.
+ */
+public class DiameterBounds {
+    private final int lower;
+    private final int upper;
+
+    public DiameterBounds(int lower, int upper) {
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    public int getLower() {
+        return lower;
+    }
+
+    public int getUpper() {
+        return upper;
+    }
+
+    public boolean isExact() {
+        return lower == upper;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("lower", lower).add("upper", upper).toString();
+    }
+}
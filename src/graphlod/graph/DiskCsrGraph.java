@@ -0,0 +1,96 @@
+package graphlod.graph;
+
+import graphlod.dataset.UriDictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Undirected compressed sparse row graph whose arrays are memory mapped files, written by
+ * {@link ExternalEdgeSorter}. Vertices are dictionary ids, the ids in {@link #isVertex} make up the graph,
+ * all others have no neighbours. Like the undirected adjacency of {@link CsrGraph}, each neighbour of v is
+ * listed once between neighbourStart(v) and neighbourEnd(v). Offsets are longs, so the number of
+ * neighbours is only limited by the disk.
+ */
+public class DiskCsrGraph {
+    private static final long CHUNK_SIZE = 1L << 30; // bytes per mapping, a multiple of 8
+
+    private final UriDictionary dictionary;
+    private final BitSet vertices;
+    private final int idCount;
+    private final long edgeCount;
+    private final MappedByteBuffer[] offsets;
+    private final MappedByteBuffer[] targets;
+
+    DiskCsrGraph(UriDictionary dictionary, BitSet vertices, long edgeCount, File offsets, File targets) throws IOException {
+        this.dictionary = dictionary;
+        this.vertices = vertices;
+        this.idCount = dictionary.size();
+        this.edgeCount = edgeCount;
+        this.offsets = map(offsets);
+        this.targets = map(targets);
+    }
+
+    private static MappedByteBuffer[] map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = i * CHUNK_SIZE;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+            }
+            return chunks;
+        }
+    }
+
+    /**
+     * Number of ids, vertices are between 0 and this.
+     */
+    public int getIdCount() {
+        return idCount;
+    }
+
+    public boolean isVertex(int v) {
+        return vertices.get(v);
+    }
+
+    /**
+     * Returns the first vertex at or after v, or -1.
+     */
+    public int nextVertex(int v) {
+        return vertices.nextSetBit(v);
+    }
+
+    public int getVertexCount() {
+        return vertices.cardinality();
+    }
+
+    /**
+     * Number of edges including parallel ones, in either direction.
+     */
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    public String getVertex(int v) {
+        return dictionary.getUri(v);
+    }
+
+    public long neighbourStart(int v) {
+        long position = v * 8L;
+        return offsets[(int) (position / CHUNK_SIZE)].getLong((int) (position % CHUNK_SIZE));
+    }
+
+    public long neighbourEnd(int v) {
+        return neighbourStart(v + 1);
+    }
+
+    public int neighbour(long i) {
+        long position = i * 4L;
+        return targets[(int) (position / CHUNK_SIZE)].getInt((int) (position % CHUNK_SIZE));
+    }
+}
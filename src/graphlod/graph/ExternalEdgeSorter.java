@@ -0,0 +1,241 @@
+package graphlod.graph;
+
+import graphlod.dataset.UriDictionary;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the edges of a graph that doesn't fit into the heap as pairs of vertex ids. Both directions of
+ * each edge are buffered, the buffer is sorted and written to a run file whenever it is full. {@link #finish}
+ * merges the runs into a {@link DiskCsrGraph}, so only one buffer of pairs is held in memory at any time.
+ */
+public class ExternalEdgeSorter {
+    private static Logger logger = LoggerFactory.getLogger(ExternalEdgeSorter.class);
+
+    public static final int DEFAULT_RUN_SIZE = 16 * 1024 * 1024; // pairs per run, 128MB
+    private static final int MAX_FAN_IN = 64; // runs merged at once
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final File directory;
+    private final long[] buffer;
+    private int size;
+    private final List<File> runs = new ArrayList<>();
+
+    public ExternalEdgeSorter(File directory) {
+        this(directory, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param runSize number of pairs sorted in memory before they are written to a run
+     */
+    public ExternalEdgeSorter(File directory, int runSize) {
+        Validate.notNull(directory, "directory must not be null");
+        Validate.isTrue(runSize >= 2, "runSize must be at least 2");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeException("could not create directory " + directory);
+        }
+        this.directory = directory;
+        this.buffer = new long[runSize];
+    }
+
+    /**
+     * Adds an edge between two vertex ids, the direction is not kept.
+     */
+    public void add(int source, int target) {
+        put(pair(source, target));
+        if (source != target) {
+            put(pair(target, source));
+        }
+    }
+
+    private void put(long pair) {
+        if (size == buffer.length) {
+            spill();
+        }
+        buffer[size++] = pair;
+    }
+
+    /**
+     * Merges all runs into the neighbour lists of the vertices. Pairs with an end that is not in vertices
+     * are dropped, parallel edges end up as a single neighbour. The run files are deleted afterwards.
+     * @param dictionary the dictionary the vertex ids refer to
+     * @param vertices the ids that are vertices of the graph
+     */
+    public DiskCsrGraph finish(UriDictionary dictionary, BitSet vertices) {
+        try {
+            if (size > 0) {
+                spill();
+            }
+            while (runs.size() > MAX_FAN_IN) {
+                List<File> group = new ArrayList<>(runs.subList(0, MAX_FAN_IN));
+                runs.subList(0, MAX_FAN_IN).clear();
+                runs.add(mergeRuns(group));
+            }
+            return writeCsr(dictionary, vertices);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void spill() {
+        Arrays.sort(buffer, 0, size);
+        try {
+            File run = File.createTempFile("graphlod-", ".run", directory);
+            run.deleteOnExit();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE))) {
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(buffer[i]);
+                }
+            }
+            runs.add(run);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        logger.debug("Wrote run " + runs.size() + " with " + size + " pairs");
+        size = 0;
+    }
+
+    private File mergeRuns(List<File> group) throws IOException {
+        File run = File.createTempFile("graphlod-", ".run", directory);
+        run.deleteOnExit();
+        try (RunMerger merger = new RunMerger(group);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), IO_BUFFER_SIZE))) {
+            while (merger.hasNext()) {
+                out.writeLong(merger.next());
+            }
+        }
+        delete(group);
+        return run;
+    }
+
+    private DiskCsrGraph writeCsr(UriDictionary dictionary, BitSet vertices) throws IOException {
+        File offsets = File.createTempFile("graphlod-", ".offsets", directory);
+        File targets = File.createTempFile("graphlod-", ".targets", directory);
+        offsets.deleteOnExit();
+        targets.deleteOnExit();
+        int ids = dictionary.size();
+        long edgeCount = 0;
+        long neighbours = 0;
+        try (RunMerger merger = new RunMerger(runs);
+             DataOutputStream offsetsOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(offsets), IO_BUFFER_SIZE));
+             DataOutputStream targetsOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(targets), IO_BUFFER_SIZE))) {
+            int vertex = 0; // next vertex whose offset is not written yet
+            long previous = -1;
+            while (merger.hasNext()) {
+                long pair = merger.next();
+                int source = (int) (pair >>> 32);
+                int target = (int) pair;
+                if (!vertices.get(source) || !vertices.get(target)) {
+                    continue;
+                }
+                // every edge is stored in both directions, loops only once
+                if (source <= target) {
+                    edgeCount++;
+                }
+                if (pair == previous) {
+                    continue;
+                }
+                previous = pair;
+                while (vertex <= source) {
+                    offsetsOut.writeLong(neighbours);
+                    vertex++;
+                }
+                targetsOut.writeInt(target);
+                neighbours++;
+            }
+            while (vertex <= ids) {
+                offsetsOut.writeLong(neighbours);
+                vertex++;
+            }
+        } finally {
+            delete(runs);
+            runs.clear();
+        }
+        logger.info("Wrote " + neighbours + " neighbours of " + vertices.cardinality() + " vertices to " + targets);
+        return new DiskCsrGraph(dictionary, vertices, edgeCount, offsets, targets);
+    }
+
+    private static void delete(List<File> runs) {
+        for (File run : runs) {
+            if (!run.delete()) {
+                logger.warn("Could not delete " + run);
+            }
+        }
+    }
+
+    private static long pair(int source, int target) {
+        Validate.isTrue(source >= 0 && target >= 0, "vertex ids must not be negative");
+        return ((long) source << 32) | target;
+    }
+
+    /**
+     * Reads several sorted runs as one sorted sequence.
+     */
+    private static class RunMerger implements Closeable {
+        private final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        private final List<RunReader> readers = new ArrayList<>();
+
+        RunMerger(List<File> runs) throws IOException {
+            for (File run : runs) {
+                RunReader reader = new RunReader(run, Math.max(1024, IO_BUFFER_SIZE / Math.max(1, runs.size() / 16)));
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+        }
+
+        boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        long next() throws IOException {
+            RunReader reader = queue.poll();
+            long value = reader.current;
+            if (reader.advance()) {
+                queue.add(reader);
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                reader.in.close();
+            }
+        }
+    }
+
+    private static class RunReader implements Comparable<RunReader> {
+        final DataInputStream in;
+        long remaining;
+        long current;
+
+        RunReader(File run, int bufferSize) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), bufferSize));
+            this.remaining = run.length() / 8;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            current = in.readLong();
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return Long.compare(current, other.current);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package graphlod.output;
 
 import graphlod.dataset.Dataset;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +39,7 @@ public class GramiOutput {
                 writer.write(System.lineSeparator());
             }
 
-            for (DefaultEdge edge : this.dataset.getGraph().edgeSet()) {
+            for (Edge edge : this.dataset.getGraph().edgeSet()) {
                 writer.write("e " + new Integer(vertexIds.get(edge.getSource().toString())) + " "  + new Integer(vertexIds.get(edge.getTarget().toString())) + " 1");
                 writer.write(System.lineSeparator());
             }
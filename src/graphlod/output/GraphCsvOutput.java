@@ -7,8 +7,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
-import graphlod.utils.CollectionUtils;
 import graphlod.algorithms.GraphFeatures;
+import graphlod.graph.DiameterBounds;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -17,10 +17,8 @@ import com.google.common.base.Charsets;
 public class GraphCsvOutput {
 
 	private final CSVPrinter writer;
-	private final int maxSizeForDiameter;
 
-	public GraphCsvOutput(String name, int maxSizeForDiameter) {
-		this.maxSizeForDiameter = maxSizeForDiameter;
+	public GraphCsvOutput(String name) {
 		Writer out;
 		try {
 			Path path = Paths.get(name + "_graphs.csv");
@@ -31,12 +29,14 @@ public class GraphCsvOutput {
 		}
 	}
 
-	public void writeGraph(GraphFeatures graph) {
-		double diameter = graph.getVertexCount() < maxSizeForDiameter ? graph.getDiameter() : -1;
+	/**
+	 * @param diameter the undirected diameter bounds, the diameter is written as -1 unless they are exact
+	 */
+	public void writeGraph(GraphFeatures graph, DiameterBounds diameter) {
 		try {
-			writer.printRecord(graph.getId(), graph.getVertexCount(), graph.getEdgeCount(), diameter,
-					CollectionUtils.average(graph.getIndegrees()), CollectionUtils.max(graph.getIndegrees()),
-					CollectionUtils.average(graph.getOutdegrees()), CollectionUtils.max(graph.getOutdegrees()));
+			writer.printRecord(graph.getId(), graph.getVertexCount(), graph.getEdgeCount(), diameter.isExact() ? diameter.getLower() : -1,
+					graph.getIndegreeSequence().getAverage(), graph.getIndegreeSequence().getMax(),
+					graph.getOutdegreeSequence().getAverage(), graph.getOutdegreeSequence().getMax());
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -40,15 +40,26 @@ public class HtmlDocument {
 
 
     private void printStats(BufferedWriter out, List<GraphFeatures> graphs, String string, int times) throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        for (GraphFeatures graph : graphs) {
+            sizes.add(graph.getVertexCount());
+        }
+        printSizeStats(out, sizes, string, times);
+    }
+
+    /**
+     * Like {@link #printStats} for graphs of which only the number of vertices is known.
+     */
+    private void printSizeStats(BufferedWriter out, List<Integer> sizes, String string, int times) throws IOException {
         out.write("<tr>\n");
         out.write("<td>");
         for (int i = 1; i <= times; i++) {
             out.write("&nbsp;&nbsp;");
         }
         out.write(string + "</td>\n");
-        logger.info(string + ": " + graphs.size());
-        out.write("<td>" + graphs.size() + "</td>\n");
-        if (graphs.size() == 0) {
+        logger.info(string + ": " + sizes.size());
+        out.write("<td>" + sizes.size() + "</td>\n");
+        if (sizes.size() == 0) {
             out.write("<td></td>\n");
             out.write("<td></td>\n");
             out.write("<td></td>\n");
@@ -58,16 +69,14 @@ public class HtmlDocument {
         }
         int min = 0;
         int max = 0;
-        List<Integer> sizes = new ArrayList<>();
-        for (GraphFeatures graph : graphs) {
-            sizes.add(graph.getVertexCount());
+        for (int size : sizes) {
             if (min == 0) {
-                min = graph.getVertexCount();
-            } else if (graph.getVertexCount() < min) {
-                min = graph.getVertexCount();
+                min = size;
+            } else if (size < min) {
+                min = size;
             }
-            if (graph.getVertexCount() > max) {
-                max = graph.getVertexCount();
+            if (size > max) {
+                max = size;
             }
         }
         double avg = Utils.calculateAverage(sizes);
@@ -107,7 +116,7 @@ public class HtmlDocument {
             BufferedWriter out = Files.newWriter(file, Charsets.UTF_8);
             printTableHeader(out);
             printStats(out, graphLod.connectedGraphFeatures, "Connected sets", 0);
-            printStats(out, graphLod.stronglyConnectedGraphs, "Strongly connected sets", 0);
+            printSizeStats(out, graphLod.stronglyconnectedGraphSizes, "Strongly connected sets", 0);
             printTableFooter(out);
             printGroups(out);
             out.close();
@@ -139,7 +148,7 @@ public class HtmlDocument {
             Files.createParentDirs(file);
             BufferedWriter out = Files.newWriter(file, Charsets.UTF_8);
             printTableHeader(out);
-            // TODO printStats(out, bipartiteGraphs, "Bipartite graphs", 0);
+            printStats(out, graphLod.bipartiteGraphs, "Bipartite graphs", 0);
             /*
             printStats(out, graphLod.completeGraphs, "Complete graphs", 0);
             printStats(out, graphLod.treeGraphs, "Trees", 0);
@@ -2,9 +2,9 @@ package graphlod.output;
 
 import graphlod.algorithms.GraphFeatures;
 import graphlod.dataset.Dataset;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.jgrapht.DirectedGraph;
-import org.jgrapht.graph.SimpleGraph;
+import org.jgrapht.UndirectedGraph;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
@@ -26,7 +26,7 @@ public class JsonOutput {
     }
 
     public void write(String output) {
-        JSONObject obj = getJsonObject(this.dataset.getGraph().vertexSet(), this.dataset.getGraph().edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, true, this.dataset, null, null);
+        JSONObject obj = getJsonObject(this.dataset.getGraph().vertexSet(), this.dataset.getGraph().edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, true, this.dataset, null, null);
 
         try {
             FileWriter file = new FileWriter(output + this.dataset.getName() + ".json");
@@ -40,7 +40,7 @@ public class JsonOutput {
         }
     }
 
-    private static JSONObject getJsonObject(Set<String> vertices, Set<DefaultEdge> edges, Set<String> surroundingVertices, Set<DefaultEdge> surroundingEdges, boolean addClass, boolean addUris, Dataset dataset, String type, HashMap<String, String> classes) {
+    private static JSONObject getJsonObject(Set<String> vertices, Set<Edge> edges, Set<String> surroundingVertices, Set<Edge> surroundingEdges, boolean addClass, boolean addUris, Dataset dataset, String type, HashMap<String, String> classes) {
         JSONObject obj = new JSONObject();
 
         JSONArray jsonNodes = new JSONArray();
@@ -88,11 +88,11 @@ public class JsonOutput {
 
         obj.put("nodes", jsonNodes);
 
-        for (DefaultEdge edge : edges) {
+        for (Edge edge : edges) {
             try {
                 JSONObject edgeObject = new JSONObject();
                 if (addClass && addUris) {
-                    edgeObject.put("uri", edge.toString());
+                    edgeObject.put("uri", getPredicateUri(edge, dataset));
                     //edgeObject.put("label", dataset.getLabel(edge.toString()));
                 }
                 edgeObject.put("source", new Integer(vertexIds.get(edge.getSource().toString())));
@@ -102,11 +102,11 @@ public class JsonOutput {
                 logger.debug("Error: " + edge.toString());
             }
         }
-        for (DefaultEdge edge : surroundingEdges) {
+        for (Edge edge : surroundingEdges) {
             try {
                 JSONObject edgeObject = new JSONObject();
                 if (addClass) {
-                    edgeObject.put("uri", edge.toString());
+                    edgeObject.put("uri", getPredicateUri(edge, dataset));
                     //edgeObject.put("label", dataset.getLabel(edge.toString()));
                 }
                 edgeObject.put("source", new Integer(vertexIds.get(edge.getSource().toString())));
@@ -122,16 +122,23 @@ public class JsonOutput {
             return obj;
     }
 
+    private static String getPredicateUri(Edge edge, Dataset dataset) {
+        if (dataset == null || edge.getPredicate() == Edge.NO_PREDICATE) {
+            return null;
+        }
+        return dataset.getDictionary().getUri(edge.getPredicate());
+    }
+
     public static JSONObject getJson(GraphFeatures graphFeatures) {
-        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<DefaultEdge>(), false, false, null, graphFeatures.getType(), null);
+        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<Edge>(), false, false, null, graphFeatures.getType(), null);
     }
 
-    public static JSONObject getJson(SimpleGraph graph, String type) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), false, false, null, type, null);
+    public static JSONObject getJson(UndirectedGraph graph, String type) {
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), false, false, null, type, null);
     }
 
     public static JSONObject getJson(DirectedGraph graph, String type, Dataset dataset) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, true, dataset, type, null);
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, true, dataset, type, null);
     }
 
     public static JSONObject getJson(DirectedGraph graph, DirectedGraph surroundingGraph, String type, Dataset dataset) {
@@ -139,26 +146,26 @@ public class JsonOutput {
     }
 
     public static JSONObject getJsonColored(GraphFeatures graphFeatures, Dataset dataset) {
-        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, true, dataset, null, null);
+        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<Edge>(), true, true, dataset, null, null);
     }
 
-    public static JSONObject getJsonColored(SimpleGraph graph, Dataset dataset) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, true, dataset, null, null);
+    public static JSONObject getJsonColored(UndirectedGraph graph, Dataset dataset) {
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, true, dataset, null, null);
     }
 
-    public static JSONObject getJsonColored(SimpleGraph graph, Dataset dataset, HashMap<String, String> classes) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, true, dataset, null, classes);
+    public static JSONObject getJsonColored(UndirectedGraph graph, Dataset dataset, HashMap<String, String> classes) {
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, true, dataset, null, classes);
     }
 
     public static JSONObject getJsonColoredGroup(GraphFeatures graphFeatures, Dataset dataset) {
-        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, false, dataset, null, null);
+        return getJsonObject(graphFeatures.getVertices(), graphFeatures.getEdges(), new HashSet<String>(), new HashSet<Edge>(), true, false, dataset, null, null);
     }
 
-    public static JSONObject getJsonColoredGroup(SimpleGraph graph, Dataset dataset, String type) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, false, dataset, type, null);
+    public static JSONObject getJsonColoredGroup(UndirectedGraph graph, Dataset dataset, String type) {
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, false, dataset, type, null);
     }
 
-    public static JSONObject getJsonColoredGroup(SimpleGraph graph, Dataset dataset) {
-        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<DefaultEdge>(), true, false, dataset, null, null);
+    public static JSONObject getJsonColoredGroup(UndirectedGraph graph, Dataset dataset) {
+        return getJsonObject(graph.vertexSet(), graph.edgeSet(), new HashSet<String>(), new HashSet<Edge>(), true, false, dataset, null, null);
     }
 }
@@ -5,15 +5,14 @@ import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
 
 import graphlod.algorithms.GraphFeatures;
-import graphlod.graph.Degree;
+import graphlod.graph.CsrGraph;
+import graphlod.graph.DegreeSequence;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
 import com.google.common.base.Charsets;
-import com.google.common.base.Verify;
 
 public class VertexCsvOutput {
 
@@ -31,15 +30,13 @@ public class VertexCsvOutput {
 	}
 
 	public void writeGraph(GraphFeatures graph) {
-		List<Degree> inDegrees = graph.getIndegrees2();
-		List<Degree> outDegrees = graph.getOutdegrees2();
+		CsrGraph csr = graph.getCsrGraph();
+		DegreeSequence inDegrees = graph.getIndegreeSequence();
+		DegreeSequence outDegrees = graph.getOutdegreeSequence();
 
-		for (int i = 0; i < inDegrees.size(); i++) {
-			Degree in = inDegrees.get(i);
-			Degree out = outDegrees.get(i);
-			Verify.verify(in.vertex.equals(out.vertex));
+		for (int v = 0; v < inDegrees.size(); v++) {
 			try {
-				writer.printRecord(graph.getId(), in.vertex, in.degree, out.degree);
+				writer.printRecord(graph.getId(), csr.getVertex(v), inDegrees.get(v), outDegrees.get(v));
 			} catch (IOException e) {
 				throw new RuntimeException(e);
 			}
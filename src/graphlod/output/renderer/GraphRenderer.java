@@ -5,7 +5,7 @@ import com.google.common.io.Files;
 import graphlod.algorithms.GraphFeatures;
 import graphlod.dataset.Dataset;
 import org.apache.commons.lang3.StringUtils;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.jgrapht.graph.SimpleGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,7 +85,7 @@ public class GraphRenderer {
     	writeDotFiles(type, featureList, colored);
     }
 
-    public void writeDotFilesGC(String type, List<SimpleGraph<String, DefaultEdge>> graphs, boolean colored) {
+    public void writeDotFilesGC(String type, List<SimpleGraph<String, Edge>> graphs, boolean colored) {
         this.colored = colored;
         try {
             int c = 0;
@@ -259,7 +259,7 @@ public class GraphRenderer {
         return writer;
     }
 
-    private void writeDot(SimpleGraph<String, DefaultEdge> graph, Writer writer) throws IOException {
+    private void writeDot(SimpleGraph<String, Edge> graph, Writer writer) throws IOException {
         for (String vertex : graph.vertexSet()) {
             writer.write("\t\"" + vertex + "\" ");
             writer.write("[");
@@ -269,7 +269,7 @@ public class GraphRenderer {
             writer.write("tooltip=\"" + vertex.substring(StringUtils.lastOrdinalIndexOf(vertex, "/", 2)) + "\" ");
             writer.write("URL=\"" + vertex + "\"]\n");
         }
-        for (DefaultEdge edge : graph.edgeSet()) {
+        for (Edge edge : graph.edgeSet()) {
             writer.write("\t\"" + edge.getSource() + "\" -> \"" + edge.getTarget() + "\"\n");
         }
     }
@@ -285,7 +285,7 @@ public class GraphRenderer {
             writer.write("tooltip=\"" + vertex.substring(StringUtils.lastOrdinalIndexOf(vertex, "/", 2)) + "\" ");
             writer.write("URL=\"" + vertex + "\"]\n");
         }
-        for (DefaultEdge edge : features.getEdges()) {
+        for (Edge edge : features.getEdges()) {
             writer.write("\t\"" + edge.getSource() + "\" -> \"" + edge.getTarget() + "\"\n");
         }
     }
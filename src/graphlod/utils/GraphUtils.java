@@ -1,17 +1,55 @@
 package graphlod.utils;
 
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.Graphs;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.Multigraph;
 import org.jgrapht.graph.SimpleGraph;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class GraphUtils {
-    public static List<String> getNeighboursOfV(DirectedGraph<String, DefaultEdge> graph, String v) {
+    /**
+     * Returns an undirected copy of the graph without parallel edges and loops that shares the edge instances.
+     * Of the edges between two vertices u < v the first from u to v is kept, or if there is none the first
+     * from v to u. Each edge is looked at twice, later changes to the graph are not reflected.
+     */
+    public static UndirectedGraph<String, Edge> toSimpleGraph(DirectedGraph<String, Edge> graph) {
+        // a multigraph doesn't search the edges of a vertex on each insertion, the pairs are distinct anyway
+        UndirectedGraph<String, Edge> simpleGraph = new Multigraph<>(Edge.class);
+        for (String vertex : graph.vertexSet()) {
+            simpleGraph.addVertex(vertex);
+        }
+        Map<String, Edge> firstEdges = new LinkedHashMap<>();
+        for (String vertex : graph.vertexSet()) {
+            // the pairs with vertex as the smaller end, edges from it win over edges to it
+            for (Edge edge : graph.outgoingEdgesOf(vertex)) {
+                String target = graph.getEdgeTarget(edge);
+                if (vertex.compareTo(target) < 0 && !firstEdges.containsKey(target)) {
+                    firstEdges.put(target, edge);
+                }
+            }
+            for (Edge edge : graph.incomingEdgesOf(vertex)) {
+                String source = graph.getEdgeSource(edge);
+                if (vertex.compareTo(source) < 0 && !firstEdges.containsKey(source)) {
+                    firstEdges.put(source, edge);
+                }
+            }
+            for (Edge edge : firstEdges.values()) {
+                simpleGraph.addEdge(graph.getEdgeSource(edge), graph.getEdgeTarget(edge), edge);
+            }
+            firstEdges.clear();
+        }
+        return simpleGraph;
+    }
+
+    public static List<String> getNeighboursOfV(DirectedGraph<String, Edge> graph, String v) {
         try {
             List<String> neighbourVertexList = Graphs.neighborListOf(graph, v);
             Set<String> hs = new HashSet<>();
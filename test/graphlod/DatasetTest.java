@@ -1,26 +1,49 @@
 package graphlod;
 
 
+import graphlod.algorithms.GraphFeatures;
+import graphlod.dataset.ClassHierarchy;
 import graphlod.dataset.Dataset;
 import graphlod.dataset.GraphMLHandler;
+import graphlod.dataset.IngestMetrics;
 import graphlod.dataset.SWTGraphMLHandler;
+import graphlod.dataset.UriDictionary;
+import graphlod.graph.DiskCsrGraph;
+import graphlod.utils.GraphUtils;
 
 import javax.activation.DataSource;
 import javax.xml.crypto.Data;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-
-import org.jgraph.graph.DefaultEdge;
-import org.jgraph.graph.Edge;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import graphlod.dataset.Edge;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.jgrapht.DirectedGraph;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.graph.DirectedPseudograph;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Vertex;
 
@@ -33,6 +56,9 @@ public class DatasetTest {
     ArrayList<String> lines;
     ArrayList<String> excluded;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setUp() {
         lines = new ArrayList<>();
@@ -54,10 +80,11 @@ public class DatasetTest {
         lines.add(createStatement("a", "p1", "b"));
         Dataset dataset = Dataset.fromLines(lines, "", "", "", excluded);
 
-        DirectedGraph<String, DefaultEdge> graph = dataset.getGraph();
+        DirectedGraph<String, Edge> graph = dataset.getGraph();
         Edge edge = graph.getEdge(url("a"), url("b"));
-        assertThat(edge.getSource(), equalTo((Object) url("a")));
-        assertThat(edge.getTarget(), equalTo((Object) url("b")));
+        assertThat(edge.getSource(), equalTo(url("a")));
+        assertThat(edge.getTarget(), equalTo(url("b")));
+        assertThat(dataset.getDictionary().getUri(edge.getPredicate()), equalTo(url("p1")));
     }
 
     public void testNamespace() {
@@ -83,6 +110,153 @@ public class DatasetTest {
         assertThat(dataset.getGraph().getEdge(url("a"), url("b")), notNullValue());
     }
 
+    @Test
+    public void laterExclusionsApplyToEarlierEdges() {
+        lines.add(createStatement("e/a", "p1", "e/b"));
+        lines.add(createStatement("e/b", "p1", "e/c"));
+        lines.add(createStatement("e/a", "p1", "e/c"));
+        lines.add(createStatement("e/b", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "www.w3.org/1999/02/22-rdf-syntax-ns#Property"));
+        lines.add(createStatement("e/c", "www.w3.org/2002/07/owl#equivalentClass", "e/d"));
+        lines.add(createStatement("e/a", "p1", "e/d"));
+
+        Dataset dataset = Dataset.fromLines(lines, "", "http://e/", "", excluded);
+        // excluded vertices are never inserted, the other ends of their edges stay
+        assertThat(dataset.getGraph().vertexSet(), contains(url("e/a")));
+        assertThat(dataset.getGraph().edgeSet(), empty());
+    }
+
+    @Test
+    public void classesBelongToTheirDataset() {
+        lines.add(createStatement("k/a", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "k/C1"));
+        Dataset first = Dataset.fromLines(lines, "", "http://k/", "http://k/", excluded);
+        lines.clear();
+        lines.add(createStatement("k/a", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "k/C2"));
+        Dataset second = Dataset.fromLines(lines, "", "http://k/", "http://k/", excluded);
+
+        assertThat(first.getClassForSubject(url("k/a")), equalTo(url("k/C1")));
+        assertThat(second.getClassForSubject(url("k/a")), equalTo(url("k/C2")));
+        assertThat(second.getClass(url("k/b")), nullValue());
+        assertThat(second.getClassForSubject(url("k/b")), equalTo("null"));
+        assertThat(second.getClasses().size(), equalTo(1));
+    }
+
+    @Test
+    public void testExcludedNamespaceOrder() {
+        lines.add(createStatement("a/b/1", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "o/C"));
+        lines.add(createStatement("a/c/1", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "o/C"));
+        // the first matching excluded namespace decides which end is removed
+        lines.add(createStatement("a/b/1", "p1", "x/1"));
+        lines.add(createStatement("a/c/1", "p1", "x/1"));
+
+        Dataset dataset = Dataset.fromLines(lines, "", "http://", "http://o/", Arrays.asList("http://x/", "http://a/b/", "http://a/c/"));
+        assertThat(dataset.getGraph().vertexSet(), containsInAnyOrder(url("a/b/1"), url("a/c/1")));
+
+        lines.clear();
+        lines.add(createStatement("a/d/1", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "o/C"));
+        lines.add(createStatement("a/e/1", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "o/C"));
+        lines.add(createStatement("a/d/1", "p1", "x/1"));
+        lines.add(createStatement("a/e/1", "p1", "x/1"));
+
+        dataset = Dataset.fromLines(lines, "", "http://", "http://o/", Arrays.asList("http://a/d/", "http://x/"));
+        assertThat(dataset.getGraph().vertexSet(), containsInAnyOrder(url("a/e/1")));
+    }
+
+    @Test
+    public void verticesAreDictionaryEntries() {
+        lines.add(createStatement("a", "p1", "b"));
+        lines.add(createStatement("b", "p1", "a"));
+        lines.add(createStatement("a", "p2", "c"));
+
+        Dataset dataset = Dataset.fromLines(lines, "", "http://", "", excluded);
+        UriDictionary dictionary = dataset.getDictionary();
+        assertThat(dictionary.size(), equalTo(5));
+        assertThat(dictionary.getId(url("x")), equalTo(UriDictionary.NOT_FOUND));
+        for (String vertex : dataset.getGraph().vertexSet()) {
+            assertThat(dictionary.getUri(dictionary.getId(vertex)), sameInstance(vertex));
+        }
+    }
+
+    @Test
+    public void simpleGraphHasOneEdgePerPair() {
+        lines.add(createStatement("a", "p1", "b"));
+        lines.add(createStatement("a", "p2", "b"));
+        lines.add(createStatement("b", "p1", "a"));
+        lines.add(createStatement("b", "p1", "c"));
+
+        Dataset dataset = Dataset.fromLines(lines, "", "http://", "", excluded);
+        assertThat(dataset.getGraph().edgeSet(), hasSize(4));
+        assertThat(dataset.getSimpleGraph().edgeSet(), hasSize(2));
+        assertThat(dataset.getSimpleGraph().degreeOf(url("b")), equalTo(2));
+        Edge edge = dataset.getSimpleGraph().getEdge(url("b"), url("a"));
+        assertThat(dataset.getDictionary().getUri(edge.getPredicate()), equalTo(url("p1")));
+    }
+
+    @Test
+    public void linesMayOnlyBeReadOnce() {
+        lines.add(createStatement("a", "p1", "b"));
+        lines.add(createStatement("b", "p1", "c"));
+        final Iterator<String> once = lines.iterator();
+        Dataset dataset = Dataset.fromLines(new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return once;
+            }
+        }, "", "http://", "", excluded);
+        assertThat(dataset.getGraph().edgeSet(), hasSize(2));
+    }
+
+    @Test
+    public void simpleGraphOfGraphBuiltByHand() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        for (String vertex : Arrays.asList("a", "b", "c")) {
+            graph.addVertex(vertex);
+        }
+        graph.addEdge("b", "a", new Edge());
+        Edge ab = new Edge();
+        graph.addEdge("a", "b", ab);
+        graph.addEdge("a", "b", new Edge());
+        graph.addEdge("c", "c", new Edge());
+        Edge cb = new Edge();
+        graph.addEdge("c", "b", cb);
+
+        UndirectedGraph<String, Edge> simpleGraph = GraphUtils.toSimpleGraph(graph);
+        assertThat(simpleGraph.edgeSet(), containsInAnyOrder(ab, cb));
+        assertThat(simpleGraph.degreeOf("b"), equalTo(2));
+        assertThat(simpleGraph.degreeOf("c"), equalTo(1));
+
+        graph.removeEdge(ab);
+        assertThat(simpleGraph.edgeSet(), containsInAnyOrder(ab, cb));
+        assertThat(GraphUtils.toSimpleGraph(graph).edgesOf("a"), contains(graph.getEdge("a", "b")));
+    }
+
+    @Test
+    public void simpleGraphCountsAfterReading() {
+        Random random = new Random(5);
+        Set<Set<String>> pairs = new HashSet<>();
+        Set<String> vertices = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            String subject = "s/" + random.nextInt(300);
+            String object = "s/" + random.nextInt(300);
+            lines.add(createStatement(subject, "p" + random.nextInt(3), object));
+            if (!subject.equals(object)) {
+                // self loops are rejected while reading
+                pairs.add(new HashSet<>(Arrays.asList(url(subject), url(object))));
+                vertices.add(url(subject));
+                vertices.add(url(object));
+            }
+        }
+        Dataset dataset = Dataset.fromLines(lines, "", "http://s/", "", excluded);
+        assertThat(dataset.getGraph().edgeSet().size(), greaterThan(pairs.size()));
+
+        UndirectedGraph<String, Edge> simpleGraph = dataset.getSimpleGraph();
+        assertThat(simpleGraph.vertexSet(), equalTo(vertices));
+        assertThat(simpleGraph.edgeSet(), hasSize(pairs.size()));
+        for (Edge edge : simpleGraph.edgeSet()) {
+            assertThat(pairs, hasItem(new HashSet<>(Arrays.asList(edge.getSource(), edge.getTarget()))));
+        }
+        assertThat(dataset.getSimpleGraph(), sameInstance(simpleGraph));
+    }
+
     @Test
     public void testSubclasses() {
         lines.add(createStatement("c1", "www.w3.org/2000/01/rdf-schema#subClassOf", "c0"));
@@ -97,6 +271,276 @@ public class DatasetTest {
         assertThat(dataset.getOntologySubclasses().get(url("c1")), containsInAnyOrder(url("c11")));
     }
 
+    @Test
+    public void testClassHierarchy() {
+        String subClassOf = "www.w3.org/2000/01/rdf-schema#subClassOf";
+        lines.add(createStatement("h/Person", subClassOf, "h/Agent"));
+        lines.add(createStatement("h/Artist", subClassOf, "h/Person"));
+        lines.add(createStatement("h/Athlete", subClassOf, "h/Person"));
+        lines.add(createStatement("h/Painter", subClassOf, "h/Artist"));
+        lines.add(createStatement("h/Painter", subClassOf, "h/Athlete"));
+        lines.add(createStatement("h/Place", subClassOf, "h/Location"));
+
+        ClassHierarchy hierarchy = Dataset.fromLines(lines, "", "http://h/", "http://h/", excluded).getClassHierarchy();
+        assertThat(hierarchy.isSubclassOf(url("h/Painter"), url("h/Agent")), is(true));
+        assertThat(hierarchy.isSubclassOf(url("h/Painter"), Dataset.OWL_THING), is(true));
+        assertThat(hierarchy.isSubclassOf(url("h/Agent"), url("h/Painter")), is(false));
+        assertThat(hierarchy.isSubclassOf(url("h/Place"), url("h/Agent")), is(false));
+        assertThat(hierarchy.getAncestors(url("h/Painter")), containsInAnyOrder(url("h/Painter"), url("h/Artist"),
+                url("h/Athlete"), url("h/Person"), url("h/Agent"), Dataset.OWL_THING));
+
+        assertThat(hierarchy.getDepth(Dataset.OWL_THING), equalTo(0));
+        assertThat(hierarchy.getDepth(url("h/Painter")), equalTo(4));
+        assertThat(hierarchy.getCommonSuperclass(url("h/Artist"), url("h/Athlete")), equalTo(url("h/Person")));
+        assertThat(hierarchy.getCommonSuperclass(url("h/Painter"), url("h/Athlete")), equalTo(url("h/Athlete")));
+        assertThat(hierarchy.getCommonSuperclass(url("h/Painter"), url("h/Place")), equalTo(Dataset.OWL_THING));
+        assertThat(hierarchy.getCommonSuperclass(url("h/Painter"), url("h/Unknown")), nullValue());
+        assertThat(hierarchy.getAncestorAtDepth(url("h/Painter"), 2), equalTo(url("h/Person")));
+        assertThat(hierarchy.getAncestorAtDepth(url("h/Agent"), 2), equalTo(url("h/Agent")));
+    }
+
+    @Test
+    public void parallelIngestionMatchesSequential() throws IOException {
+        List<String> files = new ArrayList<>();
+        for (int f = 0; f < 2; f++) {
+            List<String> data = new ArrayList<>();
+            for (int i = 0; i < 20000; i++) {
+                data.add(createStatement("a/" + (i % 700), "p" + (i % 3), "a/" + ((i * 7 + f) % 900)));
+                if (i % 10 == 0) {
+                    data.add(createStatement("b/" + i, "p1", "a/" + (i % 700)));
+                }
+                if (i % 13 == 0) {
+                    data.add(createLiteralStatement("a/" + i, "p1", "some literal"));
+                }
+            }
+            File file = folder.newFile("data" + f + ".nt");
+            Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+            files.add(file.getPath());
+        }
+
+        Dataset sequential = Dataset.fromFiles(files, "", "http://a/", "", excluded, 1);
+        Dataset parallel = Dataset.fromFiles(files, "", "http://a/", "", excluded, 4);
+
+        assertThat(parallel.getGraph().vertexSet(), contains(sequential.getGraph().vertexSet().toArray()));
+        assertThat(edgeList(parallel), equalTo(edgeList(sequential)));
+    }
+
+    @Test
+    public void mappedReaderMatchesNxParser() throws IOException {
+        List<String> data = new ArrayList<>();
+        data.add("# comment");
+        data.add("");
+        for (int i = 0; i < 5000; i++) {
+            data.add(createStatement("m/" + (i % 300), "p" + (i % 3), "m/" + ((i * 7) % 400)));
+            if (i % 10 == 0) {
+                data.add(createStatement("n/" + i, "p1", "m/" + (i % 300)));
+                data.add(createStatement("m/" + i, "www.w3.org/2000/01/rdf-schema#subClassOf", "m/C" + (i % 4)));
+            }
+            if (i % 13 == 0) {
+                data.add(createLiteralStatement("m/" + i, "p1", "some \\\"quoted\\\" literal"));
+                data.add("_:b" + i + " <http://p1> <http://m/" + i + "> .");
+                data.add("\t<http://m/" + i + ">\t<http://p2>  <http://m/\u00e4" + (i % 50) + "> .\r");
+            }
+            if (i % 17 == 0) {
+                data.add(createStatement("m/" + i, "p1", "m/" + i));
+                data.add(createStatement("m/" + i, "p1", "m/" + (i + 1)) + " # trailing comment");
+                data.add("<http://m/" + i + "> <http://p1> <http://m/" + (i + 2) + "> <http://graph> .");
+            }
+        }
+        File file = folder.newFile("mapped.nt");
+        Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+        List<String> files = Arrays.asList(file.getPath());
+
+        Dataset nxParser = Dataset.fromFiles(files, "", "http://m/", "", excluded, 1, false);
+        Dataset mapped = Dataset.fromFiles(files, "", "http://m/", "", excluded, 1, true);
+        Dataset mappedParallel = Dataset.fromFiles(files, "", "http://m/", "", excluded, 4, true);
+
+        assertThat(nxParser.getGraph().edgeSet(), not(empty()));
+        assertThat(mapped.getGraph().vertexSet(), contains(nxParser.getGraph().vertexSet().toArray()));
+        assertThat(edgeList(mapped), equalTo(edgeList(nxParser)));
+        assertThat(mapped.getOntologySubclasses(), equalTo(nxParser.getOntologySubclasses()));
+        assertThat(mappedParallel.getGraph().vertexSet(), contains(nxParser.getGraph().vertexSet().toArray()));
+        assertThat(edgeList(mappedParallel), equalTo(edgeList(nxParser)));
+    }
+
+    @Test
+    public void snapshotMatchesParsedDataset() throws IOException {
+        List<String> data = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            data.add(createStatement("s/" + (i % 70), "p" + (i % 3), "s/" + ((i * 7) % 90)));
+            if (i % 10 == 0) {
+                data.add(createStatement("s/" + i, "www.w3.org/1999/02/22-rdf-syntax-ns#type", "so/C" + (i % 4)));
+                data.add(createStatement("s/" + i, "www.w3.org/2000/01/rdf-schema#label", "s/label" + i));
+            }
+        }
+        data.add(createStatement("so/C1", "www.w3.org/2000/01/rdf-schema#subClassOf", "so/C0"));
+        File file = folder.newFile("snapshot.nt");
+        Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+        List<String> files = Arrays.asList(file.getPath());
+        File snapshots = folder.newFolder("snapshots");
+
+        Dataset parsed = Dataset.fromFiles(files, "", "http://s/", "http://so/", excluded, 1, false, snapshots);
+        assertThat(snapshots.listFiles(), arrayWithSize(1));
+        Dataset loaded = Dataset.fromFiles(files, "", "http://s/", "http://so/", excluded, 1, false, snapshots);
+
+        assertThat(loaded.getGraph().vertexSet(), contains(parsed.getGraph().vertexSet().toArray()));
+        assertThat(edgeList(loaded), equalTo(edgeList(parsed)));
+        assertThat(loaded.getSimpleGraph().edgeSet().size(), equalTo(parsed.getSimpleGraph().edgeSet().size()));
+        assertThat(loaded.getLabel(url("s/10")), equalTo(url("s/label10")));
+        assertThat(loaded.getOntologyClasses(), equalTo(parsed.getOntologyClasses()));
+        assertThat(loaded.getOntologySubclasses(), equalTo(parsed.getOntologySubclasses()));
+
+        // other namespaces need a snapshot of their own
+        Dataset.fromFiles(files, "", "http://s/", "", excluded, 1, false, snapshots);
+        assertThat(snapshots.listFiles(), arrayWithSize(2));
+    }
+
+    @Test
+    public void ingestMetricsCountRejectionsByReason() throws IOException {
+        List<String> data = new ArrayList<>();
+        data.add(createStatement("s/a", "p", "s/b"));
+        data.add(createStatement("s/b", "p", "s/c"));
+        data.add(createStatement("s/a", "p", "s/c"));
+        data.add(createLiteralStatement("s/a", "p", "some literal"));
+        data.add(createLiteralStatement("s/b", "p", "another literal"));
+        data.add(createStatement("s/a", "p", "s/a"));
+        data.add(createStatement("s/a", "p", "other/x"));
+        data.add(createStatement("s/ex/1", "p", "s/b"));
+        data.add(createStatement("s/a", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "so/C"));
+        data.add("<http://s/a> <http://p> <nonsense> .");
+        File file = folder.newFile("metrics.nt");
+        Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+
+        for (int threads : new int[]{1, 2}) {
+            for (boolean mapped : new boolean[]{false, true}) {
+                Dataset dataset = Dataset.fromFiles(Arrays.asList(file.getPath()), "", "http://s/", "http://so/", Arrays.asList("http://s/ex/"), threads, mapped);
+                IngestMetrics metrics = dataset.getIngestMetrics();
+
+                assertThat(metrics.getTriples(), equalTo(10L));
+                assertThat(metrics.getBytes(), equalTo(file.length()));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.INVALID_IRI), equalTo(1L));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.LITERAL), equalTo(2L));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.SELF_LOOP), equalTo(1L));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.OUT_OF_NAMESPACE), equalTo(1L));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.EXCLUDED_NAMESPACE), equalTo(1L));
+                assertThat(metrics.getRejected(IngestMetrics.Rejection.SCHEMA), equalTo(1L));
+                assertThat(metrics.getRejected(), equalTo(7L));
+                assertThat(metrics.getVertices(), equalTo((long) dataset.getGraph().vertexSet().size()));
+                assertThat(metrics.getEdges(), equalTo(3L));
+            }
+        }
+    }
+
+    @Test
+    public void labelsAreOptionalAndLoadedLazily() throws IOException {
+        List<String> data = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            data.add(createStatement("s/" + i, "p", "s/" + (i + 1)));
+            data.add(createStatement("s/" + i, "www.w3.org/2000/01/rdf-schema#label", "s/label" + i));
+        }
+        File file = folder.newFile("labels.nt");
+        Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+        List<String> files = Arrays.asList(file.getPath());
+        File snapshots = folder.newFolder("snapshots");
+
+        Dataset withoutLabels = Dataset.fromFiles(files, "", "http://s/", "http://so/", excluded, 1, true, snapshots, false);
+        assertThat(withoutLabels.getLabel(url("s/7")), nullValue());
+
+        // a snapshot without labels can't serve a run that needs them
+        Dataset parsed = Dataset.fromFiles(files, "", "http://s/", "http://so/", excluded, 1, true, snapshots, true);
+        assertThat(parsed.getLabel(url("s/7")), equalTo(url("s/label7")));
+
+        Dataset loaded = Dataset.fromFiles(files, "", "http://s/", "http://so/", excluded, 1, true, snapshots, false);
+        assertThat(snapshots.listFiles(), arrayWithSize(1));
+        for (int i = 0; i < 300; i++) {
+            assertThat(loaded.getLabel(url("s/" + i)), equalTo(parsed.getLabel(url("s/" + i))));
+        }
+        assertThat(loaded.getLabel(url("s/300")), nullValue());
+    }
+
+    @Test
+    public void compressedFilesMatchPlainFile() throws IOException {
+        List<String> data = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            data.add(createStatement("z/" + (i % 700), "p" + (i % 3), "z/" + ((i * 7) % 900)));
+            if (i % 5 == 0) {
+                // literals that don't compress well, so the file is cut into several segments
+                data.add(createLiteralStatement("z/" + i, "p1", RandomStringUtils.random(2000, 0, 0, true, true, null, random)));
+            }
+        }
+        File plain = folder.newFile("compressed.nt");
+        Files.write(plain.toPath(), data, StandardCharsets.UTF_8);
+        File gzip = folder.newFile("compressed.nt.gz");
+        File bzip2 = folder.newFile("compressed.nt.bz2");
+        try (OutputStream gzipOut = new FileOutputStream(gzip); OutputStream bzip2Out = new FileOutputStream(bzip2)) {
+            // one member per part like bgzip and pbzip2 write them
+            for (List<String> part : Lists.partition(data, 2000)) {
+                byte[] bytes = (String.join("\n", part) + "\n").getBytes(StandardCharsets.UTF_8);
+                GZIPOutputStream gzipMember = new GZIPOutputStream(gzipOut);
+                gzipMember.write(bytes);
+                gzipMember.finish();
+                BZip2CompressorOutputStream bzip2Stream = new BZip2CompressorOutputStream(bzip2Out);
+                bzip2Stream.write(bytes);
+                bzip2Stream.finish();
+            }
+        }
+
+        Dataset expected = Dataset.fromFiles(Arrays.asList(plain.getPath()), "", "http://z/", "", excluded, 1);
+        assertThat(expected.getGraph().edgeSet(), not(empty()));
+        for (File file : Arrays.asList(gzip, bzip2)) {
+            for (int threads : new int[]{1, 4}) {
+                for (boolean mappedReader : new boolean[]{false, true}) {
+                    Dataset dataset = Dataset.fromFiles(Arrays.asList(file.getPath()), "", "http://z/", "", excluded, threads, mappedReader);
+                    assertThat(dataset.getGraph().vertexSet(), contains(expected.getGraph().vertexSet().toArray()));
+                    assertThat(edgeList(dataset), equalTo(edgeList(expected)));
+                }
+            }
+        }
+
+        // the plain files around the compressed one are read in two runs of chunks
+        List<String> mixed = Arrays.asList(plain.getPath(), plain.getPath(), gzip.getPath(), plain.getPath());
+        Dataset sequential = Dataset.fromFiles(mixed, "", "http://z/", "", excluded, 1);
+        Dataset parallel = Dataset.fromFiles(mixed, "", "http://z/", "", excluded, 4);
+        assertThat(parallel.getGraph().vertexSet(), contains(sequential.getGraph().vertexSet().toArray()));
+        assertThat(edgeList(parallel), equalTo(edgeList(sequential)));
+    }
+
+    @Test
+    public void outOfCoreMatchesInMemory() throws IOException {
+        List<String> data = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            data.add(createStatement("o/" + (i % 400), "p" + (i % 3), "o/" + ((i * 13) % 1000)));
+            if (i % 10 == 0) {
+                data.add(createStatement("x/" + i, "p1", "o/" + (i % 400)));
+            }
+        }
+        // removed after its edges were read
+        data.add(createStatement("o/5", "www.w3.org/1999/02/22-rdf-syntax-ns#type", "www.w3.org/1999/02/22-rdf-syntax-ns#Property"));
+        File file = folder.newFile("outofcore.nt");
+        Files.write(file.toPath(), data, StandardCharsets.UTF_8);
+        List<String> files = Arrays.asList(file.getPath());
+
+        Dataset inMemory = Dataset.fromFiles(files, "", "http://o/", "http://oo/", excluded, 1);
+        Dataset outOfCore = Dataset.fromFilesOutOfCore(files, "", "http://o/", "http://oo/", excluded, 1, false, folder.newFolder("runs"));
+        GraphFeatures features = new GraphFeatures("", inMemory.getGraph(), inMemory.getSimpleGraph());
+
+        assertThat(outOfCore.getGraph().vertexSet(), empty());
+        assertThat(inMemory.getDiskGraph(), nullValue());
+        DiskCsrGraph disk = outOfCore.getDiskGraph();
+        assertThat(disk.getVertexCount(), equalTo(features.getVertexCount()));
+        assertThat(disk.getEdgeCount(), equalTo((long) features.getEdgeCount()));
+        assertThat(new HashSet<>(GraphFeatures.getConnectedSets(disk)), equalTo(new HashSet<>(features.getConnectedSets())));
+    }
+
+    private static List<String> edgeList(Dataset dataset) {
+        List<String> edges = new ArrayList<>();
+        for (Edge edge : dataset.getGraph().edgeSet()) {
+            edges.add(edge.getSource() + " " + dataset.getDictionary().getUri(edge.getPredicate()) + " " + edge.getTarget());
+        }
+        return edges;
+    }
+
     public class TestGraphMLHandler implements GraphMLHandler {
         @Override
         public String getVertex(Vertex vertex) {
@@ -187,6 +631,30 @@ public class DatasetTest {
         assertThat(ds.getSimpleGraph().edgesOf("D"), hasSize(1)); // cd
     }
 
+    @Test
+    public void graphMlEdgesMayPrecedeTheirNodes() throws IOException {
+        String data = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n" +
+                "  <key id=\"url\" for=\"node\" attr.name=\"url\" attr.type=\"string\"/>\n" +
+                "  <key id=\"labels\" for=\"node\" attr.name=\"labels\" attr.type=\"string\"/>\n" +
+                "  <key id=\"label_\" for=\"edge\" attr.name=\"label_\" attr.type=\"string\"/>\n" +
+                "  <graph id=\"G\" edgedefault=\"directed\">\n" +
+                "    <node id=\"1\"><data key=\"url\">http://a</data><data key=\"labels\">:User</data></node>\n" +
+                "    <edge source=\"1\" target=\"2\"><data key=\"label_\">owner</data></edge>\n" +
+                "    <edge source=\"2\" target=\"3\"/>\n" +
+                "    <node id=\"2\"><data key=\"url\">http://b</data></node>\n" +
+                "  </graph>\n" +
+                "</graphml>";
+
+        Dataset ds = Dataset.fromGraphML(new ByteArrayInputStream(data.getBytes()), "GraphMLTest", new SWTGraphMLHandler());
+
+        assertThat(ds.getGraph().vertexSet(), containsInAnyOrder("http://a", "http://b", "3"));
+        assertThat(ds.getClassForSubject("http://a"), equalTo(":User"));
+        Edge edge = ds.getGraph().getEdge("http://a", "http://b");
+        assertThat(ds.getDictionary().getUri(edge.getPredicate()), equalTo("owner"));
+        assertThat(ds.getGraph().getEdge("http://b", "3"), notNullValue());
+    }
+
     @Ignore
     @Test
     public void testSWT() {
@@ -196,7 +664,7 @@ public class DatasetTest {
         assertThat(ds.getLabel("https://api.github.com/users/mandyklingbeil"), equalTo("https://api.github.com/users/mandyklingbeil"));
         assertThat(ds.getClassForSubject("https://api.github.com/users/mandyklingbeil"), equalTo(":GithubUser"));
 
-        DefaultEdge edge = ds.getGraph().getEdge("https://api.github.com/repos/hpi-swt2/wimi-portal/issues/58", "https://api.github.com/users/mandyklingbeil");
-        assertThat((String)edge.getUserObject(), equalTo("user"));
+        Edge edge = ds.getGraph().getEdge("https://api.github.com/repos/hpi-swt2/wimi-portal/issues/58", "https://api.github.com/users/mandyklingbeil");
+        assertThat(ds.getDictionary().getUri(edge.getPredicate()), equalTo("user"));
     }
 }
\ No newline at end of file
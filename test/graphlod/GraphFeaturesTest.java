@@ -2,14 +2,45 @@ package graphlod;
 
 import graphlod.algorithms.GraphFeatures;
 import graphlod.dataset.Dataset;
-import org.jgraph.graph.DefaultEdge;
+import graphlod.dataset.Edge;
+import graphlod.dataset.UriDictionary;
+import graphlod.graph.BiconnectedComponents;
+import graphlod.graph.CsrGraph;
+import graphlod.graph.Degree;
+import graphlod.graph.DegreeHistogram;
+import graphlod.graph.DegreeSequence;
+import graphlod.graph.DiskCsrGraph;
+import graphlod.graph.ExternalEdgeSorter;
+import graphlod.utils.CollectionUtils;
+import graphlod.utils.GraphUtils;
+import com.google.common.collect.ImmutableMap;
+import org.jgrapht.DirectedGraph;
 import org.jgrapht.GraphPath;
+import org.jgrapht.UndirectedGraph;
+import org.jgrapht.alg.BiconnectivityInspector;
+import org.jgrapht.alg.ConnectivityInspector;
+import org.jgrapht.alg.FloydWarshallShortestPaths;
+import org.jgrapht.experimental.GraphTests;
+import org.jgrapht.alg.StrongConnectivityInspector;
+import org.jgrapht.graph.AsUndirectedGraph;
+import org.jgrapht.graph.DirectedPseudograph;
+import org.jgrapht.graph.SimpleGraph;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import static graphlod.TestUtils.createStatement;
 import static graphlod.TestUtils.url;
@@ -20,6 +51,9 @@ public class GraphFeaturesTest {
 
     private GraphFeatures features;
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setup() {
         /*          -> c -> e
@@ -51,14 +85,111 @@ public class GraphFeaturesTest {
         assertThat(features.isConnected(), equalTo(true));
     }
 
+    @Test
+    public void testContainsCycles() throws Exception {
+        assertThat(features.containsCycles(), equalTo(true));
+    }
+
+    @Test
+    public void testGetNeighbourVertices() throws Exception {
+        assertThat(features.getNeighbourVertices(url("b")), containsInAnyOrder(url("a"), url("c"), url("d")));
+        assertThat(features.getNeighbourVertices(url("e")), contains(url("c")));
+    }
+
     @Test
     public void testGetDiameter() throws Exception {
         assertThat(features.getDiameter(), equalTo(3.0));
     }
 
+    @Test
+    public void diametersMatchFloydWarshall() {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+            UndirectedGraph<String, Edge> simpleGraph = new SimpleGraph<>(Edge.class);
+            int n = 10 + random.nextInt(60);
+            for (int i = 0; i < n; i++) {
+                graph.addVertex("v" + i);
+                simpleGraph.addVertex("v" + i);
+            }
+            for (int i = random.nextInt(2 * n); i > 0; i--) {
+                String source = "v" + random.nextInt(n);
+                String target = "v" + random.nextInt(n);
+                graph.addEdge(source, target, new Edge());
+                if (!source.equals(target)) {
+                    simpleGraph.addEdge(source, target);
+                }
+            }
+            GraphFeatures randomGraph = new GraphFeatures("", graph, simpleGraph);
+
+            assertThat(randomGraph.getDiameter(), equalTo(new FloydWarshallShortestPaths<>(graph).getDiameter()));
+            double undirected = new FloydWarshallShortestPaths<>(simpleGraph).getDiameter();
+            assertThat(randomGraph.getDiameterUndirected(), equalTo(undirected));
+            assertThat(randomGraph.getDiameterUndirected(simpleGraph), equalTo(undirected));
+        }
+    }
+
+    @Test
+    public void eccentricitiesAndDiameterPathMatchFloydWarshall() {
+        Random random = new Random(13);
+        for (int round = 0; round < 10; round++) {
+            DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+            int n = 10 + random.nextInt(60);
+            graph.addVertex("v0");
+            for (int i = 1; i < n; i++) {
+                graph.addVertex("v" + i);
+                // connected, with paths of different lengths
+                graph.addEdge("v" + random.nextInt(i), "v" + i, new Edge());
+            }
+            for (int i = random.nextInt(n); i > 0; i--) {
+                graph.addEdge("v" + random.nextInt(n), "v" + random.nextInt(n), new Edge());
+            }
+            GraphFeatures randomGraph = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+            FloydWarshallShortestPaths<String, Edge> fw = new FloydWarshallShortestPaths<>(graph);
+
+            int[] eccentricities = randomGraph.getEccentricities();
+            CsrGraph csr = randomGraph.getCsrGraph();
+            for (int v = 0; v < n; v++) {
+                double eccentricity = 0;
+                for (int u = 0; u < n; u++) {
+                    double distance = fw.shortestDistance(csr.getVertex(v), csr.getVertex(u));
+                    if (!Double.isInfinite(distance)) {
+                        eccentricity = Math.max(eccentricity, distance);
+                    }
+                }
+                assertThat(eccentricities[v], equalTo((int) eccentricity));
+            }
+
+            GraphPath<String, Edge> path = randomGraph.diameterPath();
+            assertThat((double) path.getEdgeList().size(), equalTo(fw.getDiameter()));
+            String vertex = path.getStartVertex();
+            for (Edge e : path.getEdgeList()) {
+                assertThat(graph.getEdgeSource(e), equalTo(vertex));
+                vertex = graph.getEdgeTarget(e);
+            }
+            assertThat(vertex, equalTo(path.getEndVertex()));
+        }
+    }
+
+    @Test
+    public void diameterBoundsOfLongPath() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            graph.addVertex("v" + i);
+        }
+        for (int i = 0; i < n - 1; i++) {
+            graph.addEdge("v" + i, "v" + (i + 1), new Edge());
+        }
+        GraphFeatures path = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        assertThat(path.getDiameterBounds(3).isExact(), equalTo(true));
+        assertThat(path.getDiameterBounds(3).getLower(), equalTo(n - 1));
+        assertThat(path.isPathGraph(), equalTo(true));
+    }
+
     @Test
     public void testGetDiameterPath() throws Exception {
-        GraphPath<String, DefaultEdge> path = features.diameterPath();
+        GraphPath<String, Edge> path = features.diameterPath();
         assertThat(path.getStartVertex(), equalTo(url("a")));
         assertThat(path.getEndVertex(), equalTo(url("e")));
     }
@@ -68,6 +199,40 @@ public class GraphFeaturesTest {
         assertThat(features.getEdgeCounts(), contains(1, 4, 2, 2, 1));
     }
 
+    @Test
+    public void testGetDegreeDistribution() throws Exception {
+        assertThat(features.getDegreeDistribution(), equalTo((Map<Integer, Integer>) ImmutableMap.of(1, 2, 2, 2, 4, 1)));
+        DegreeHistogram indegrees = features.getIndegreeHistogram();
+        assertThat(indegrees.getMaxDegree(), equalTo(2));
+        assertThat(indegrees.getCount(0), equalTo(1));
+        assertThat(indegrees.getCount(1), equalTo(3));
+        assertThat(indegrees.getCount(2), equalTo(1));
+    }
+
+    @Test
+    public void powerLawExponentOfSampledDegrees() {
+        // inverse transform sampling of a discrete power law with exponent 2.5
+        Random random = new Random(19);
+        int n = 100000;
+        DegreeSequence degrees = new DegreeSequence(n);
+        for (int v = 0; v < n; v++) {
+            degrees.set(v, (int) Math.floor(5.5 * Math.pow(1 - random.nextDouble(), -1 / 1.5) + 0.5));
+        }
+        DegreeHistogram histogram = new DegreeHistogram(degrees);
+        assertThat(histogram.estimatePowerLawExponent(6), closeTo(2.5, 0.05));
+        assertThat(histogram.estimatePowerLawExponent(histogram.getMaxDegree() + 1), equalTo(Double.NaN));
+
+        int count = histogram.getCount(0);
+        int start = 1;
+        for (DegreeHistogram.Bin bin : histogram.getLogBins(2)) {
+            assertThat(bin.getStart(), equalTo(start));
+            start = bin.getEnd();
+            count += bin.getCount();
+        }
+        assertThat(start, greaterThan(histogram.getMaxDegree()));
+        assertThat(count, equalTo(n));
+    }
+
     @Test
     public void testGetIndegrees() throws Exception {
         assertThat(features.getIndegrees(), contains(0, 2, 1, 1, 1));
@@ -78,6 +243,39 @@ public class GraphFeaturesTest {
         assertThat(features.getOutdegrees(), contains(1, 2, 1, 1, 0));
     }
 
+    @Test
+    public void maxDegreesMatchSortedDegrees() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        for (int i = 0; i < 500; i++) {
+            graph.addVertex("v" + i);
+        }
+        Random random = new Random(17);
+        for (int i = 0; i < 1500; i++) {
+            graph.addEdge("v" + random.nextInt(500), "v" + random.nextInt(500), new Edge());
+        }
+        GraphFeatures randomGraph = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+
+        for (int count : new int[]{0, 1, 10, 499, 500, 600}) {
+            assertThat(vertices(randomGraph.maxInDegrees(count)),
+                    equalTo(vertices(CollectionUtils.maxValues(randomGraph.getIndegrees2(), count))));
+            assertThat(vertices(randomGraph.maxOutDegrees(count)),
+                    equalTo(vertices(CollectionUtils.maxValues(randomGraph.getOutdegrees2(), count))));
+            assertThat(vertices(randomGraph.maxDegrees(count)),
+                    equalTo(vertices(CollectionUtils.maxValues(randomGraph.getDegrees2(), count))));
+        }
+        assertThat(randomGraph.getMaxIndegree(), equalTo(CollectionUtils.max(randomGraph.getIndegrees())));
+        assertThat(randomGraph.getMinIndegree(), equalTo(CollectionUtils.min(randomGraph.getIndegrees())));
+        assertThat(randomGraph.getAverageIndegree(), equalTo(3.0));
+    }
+
+    private static List<String> vertices(List<Degree> degrees) {
+        List<String> vertices = new ArrayList<>();
+        for (Degree degree : degrees) {
+            vertices.add(degree.vertex);
+        }
+        return vertices;
+    }
+
     @Test
     public void getStronglyConnectedSets() throws Exception {
         assertThat(features.getStronglyConnectedSets(),
@@ -114,6 +312,102 @@ public class GraphFeaturesTest {
         assertThat(subGraphFeatures.get(0).getEdges(), equalTo(features.getEdges()));
     }
 
+    @Test
+    public void parallelComponentsMatchConnectivityInspector() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        int n = 200000;
+        for (int i = 0; i < n; i++) {
+            graph.addVertex("v" + i);
+        }
+        Random random = new Random(5);
+        for (int i = 0; i < n * 9 / 10; i++) {
+            graph.addEdge("v" + random.nextInt(n), "v" + random.nextInt(n), new Edge());
+        }
+        GraphFeatures large = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+
+        int[] components = large.getConnectedComponents(4);
+        assertThat(large.getConnectedComponents(1), equalTo(components));
+        CsrGraph csr = large.getCsrGraph();
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            // numbered in the order of their first vertex
+            assertThat(components[v], lessThanOrEqualTo(count));
+            count = Math.max(count, components[v] + 1);
+            for (int i = csr.neighbourStart(v); i < csr.neighbourEnd(v); i++) {
+                assertThat(components[csr.neighbour(i)], equalTo(components[v]));
+            }
+        }
+        assertThat(count, equalTo(new ConnectivityInspector<>(graph).connectedSets().size()));
+        assertThat(GraphFeatures.getComponentSizes(components).length, equalTo(count));
+
+        List<GraphFeatures> subgraphs = large.createSubGraphFeatures(components);
+        assertThat(subgraphs, hasSize(count));
+        int vertices = 0;
+        for (GraphFeatures subgraph : subgraphs) {
+            vertices += subgraph.getVertexCount();
+        }
+        assertThat(vertices, equalTo(n));
+    }
+
+    @Test
+    public void stronglyConnectedComponentsMatchInspector() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        for (int i = 0; i < 2000; i++) {
+            graph.addVertex("v" + i);
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 2600; i++) {
+            graph.addEdge("v" + random.nextInt(2000), "v" + random.nextInt(2000), new Edge());
+        }
+        GraphFeatures random2000 = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+
+        assertThat(new HashSet<>(random2000.getStronglyConnectedSets()),
+                equalTo(new HashSet<>(new StrongConnectivityInspector<>(graph).stronglyConnectedSets())));
+    }
+
+    @Test
+    public void stronglyConnectedComponentsOfLongCycle() {
+        // deep enough to overflow a recursive search
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        int n = 300000;
+        for (int i = 0; i < n; i++) {
+            graph.addVertex("v" + i);
+        }
+        for (int i = 0; i < n - 1; i++) {
+            graph.addEdge("v" + i, "v" + (i + 1), new Edge());
+        }
+        GraphFeatures chain = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        assertThat(GraphFeatures.getComponentSizes(chain.getStronglyConnectedComponents()).length, equalTo(n));
+
+        graph.addEdge("v" + (n - 1), "v0", new Edge());
+        GraphFeatures cycle = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        assertThat(GraphFeatures.getComponentSizes(cycle.getStronglyConnectedComponents()), equalTo(new int[]{n}));
+    }
+
+    @Test
+    public void bipartiteComponentsMatchGraphTests() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        for (int i = 0; i < 3000; i++) {
+            graph.addVertex("v" + i);
+        }
+        Random random = new Random(29);
+        for (int i = 0; i < 1800; i++) {
+            graph.addEdge("v" + random.nextInt(3000), "v" + random.nextInt(3000), new Edge());
+        }
+        GraphFeatures random3000 = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+
+        int[] components = random3000.getConnectedComponents();
+        BitSet bipartite = random3000.getBipartiteComponents(components);
+        assertThat(bipartite.cardinality(), both(greaterThan(0)).and(lessThan(GraphFeatures.getComponentSizes(components).length)));
+        assertThat(random3000.isBipartite(), equalTo(false));
+        for (GraphFeatures subgraph : random3000.createSubGraphFeatures(components)) {
+            boolean expected = GraphTests.isBipartite(new AsUndirectedGraph<>(subgraph.getGraph()));
+            assertThat(subgraph.isBipartite(), equalTo(expected));
+            assertThat(new GraphFeatures("", subgraph.getGraph(), subgraph.getSimpleGraph()).isBipartite(), equalTo(expected));
+        }
+        assertThat(features.isBipartite(), equalTo(true));
+    }
+
     @Test
     public void testGetBiConnectedSets() throws Exception {
         assertThat(features.getBiConnectedSets(), containsInAnyOrder(
@@ -122,4 +416,127 @@ public class GraphFeaturesTest {
                 contains(url("b"), url("d")),
                 contains(url("c"), url("e"))));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void biconnectedComponentsMatchInspector() {
+        Random random = new Random(23);
+        for (int round = 0; round < 20; round++) {
+            DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+            int n = 5 + random.nextInt(80);
+            graph.addVertex("v0");
+            for (int i = 1; i < n; i++) {
+                graph.addVertex("v" + i);
+                graph.addEdge("v" + i, "v" + random.nextInt(i), new Edge());
+            }
+            for (int i = random.nextInt(n / 2); i > 0; i--) {
+                graph.addEdge("v" + random.nextInt(n), "v" + random.nextInt(n), new Edge());
+            }
+            GraphFeatures randomGraph = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+            BiconnectivityInspector<String, Edge> inspector = new BiconnectivityInspector<>(new AsUndirectedGraph<>(graph));
+
+            assertThat(randomGraph.getBiConnectedSets(), equalTo(inspector.getBiconnectedVertexComponents()));
+            BiconnectedComponents components = randomGraph.getBiconnectedComponents();
+            CsrGraph csr = randomGraph.getCsrGraph();
+            Set<String> articulationPoints = new HashSet<>();
+            for (int v = 0; v < n; v++) {
+                if (components.isArticulationPoint(v)) {
+                    articulationPoints.add(csr.getVertex(v));
+                }
+            }
+            assertThat(articulationPoints, equalTo(inspector.getCutpoints()));
+
+            int[] edgeBlocks = components.getEdgeBlocks();
+            int[] blockSizes = components.getBlockSizes();
+            for (int v = 0; v < n; v++) {
+                for (int i = csr.outStart(v); i < csr.outEnd(v); i++) {
+                    int u = csr.outTarget(i);
+                    assertThat(edgeBlocks[i], u == v ? equalTo(-1) : both(greaterThanOrEqualTo(0)).and(lessThan(blockSizes.length)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void isolatedVerticesAreSingletonBlocks() {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        graph.addVertex("a");
+        graph.addVertex("b");
+        graph.addVertex("c");
+        graph.addEdge("b", "c", new Edge());
+        graph.addEdge("a", "a", new Edge());
+        GraphFeatures isolated = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        BiconnectedComponents components = isolated.getBiconnectedComponents();
+        CsrGraph csr = isolated.getCsrGraph();
+        assertThat(components.getBlockCount(), equalTo(2));
+        int block = components.getSingletonBlock(csr.indexOf("a"));
+        assertThat(block, greaterThanOrEqualTo(0));
+        assertThat(components.getBlockSizes()[block], equalTo(1));
+        assertThat(components.getSingletonBlock(csr.indexOf("b")), equalTo(-1));
+        assertThat(components.isArticulationPoint(csr.indexOf("a")), equalTo(false));
+
+        graph.removeVertex("b");
+        graph.removeVertex("c");
+        GraphFeatures single = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        assertThat(single.getBiConnectedSets(), contains(contains("a")));
+    }
+
+    @Test
+    public void biconnectedComponentsOfLongPath() {
+        // deep enough to overflow a recursive search
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        int n = 300000;
+        for (int i = 0; i < n; i++) {
+            graph.addVertex("v" + i);
+        }
+        for (int i = 0; i < n - 1; i++) {
+            graph.addEdge("v" + i, "v" + (i + 1), new Edge());
+        }
+        GraphFeatures path = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        BiconnectedComponents components = path.getBiconnectedComponents();
+        assertThat(components.getBlockCount(), equalTo(n - 1));
+        assertThat(components.getArticulationPointCount(), equalTo(n - 2));
+
+        graph.addEdge("v" + (n - 1), "v0", new Edge());
+        GraphFeatures cycle = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+        assertThat(cycle.getBiconnectedComponents().getBlockSizes(), equalTo(new int[]{n}));
+        assertThat(cycle.getBiconnectedComponents().getArticulationPointCount(), equalTo(0));
+    }
+
+    @Test
+    public void diskGraphComponentsMatchInMemory() throws IOException {
+        DirectedGraph<String, Edge> graph = new DirectedPseudograph<>(Edge.class);
+        UriDictionary dictionary = new UriDictionary();
+        BitSet vertices = new BitSet();
+        for (int i = 0; i < 600; i++) {
+            dictionary.encode(url("v" + i));
+            if (i % 7 != 0) {
+                graph.addVertex(url("v" + i));
+                vertices.set(i);
+            }
+        }
+        File runs = folder.newFolder();
+        // small runs, so they are merged in several passes
+        ExternalEdgeSorter sorter = new ExternalEdgeSorter(runs, 4);
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            int source = random.nextInt(600);
+            int target = random.nextInt(600);
+            sorter.add(source, target);
+            if (vertices.get(source) && vertices.get(target)) {
+                graph.addEdge(url("v" + source), url("v" + target), new Edge());
+            }
+        }
+        DiskCsrGraph disk = sorter.finish(dictionary, vertices);
+        GraphFeatures inMemory = new GraphFeatures("", graph, GraphUtils.toSimpleGraph(graph));
+
+        assertThat(disk.getVertexCount(), equalTo(inMemory.getVertexCount()));
+        assertThat(disk.getEdgeCount(), equalTo((long) inMemory.getEdgeCount()));
+        assertThat(GraphFeatures.getConnectedSets(disk), equalTo(inMemory.getConnectedSets()));
+        assertThat(runs.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".run");
+            }
+        }), emptyArray());
+    }
+}
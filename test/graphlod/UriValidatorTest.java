@@ -0,0 +1,145 @@
+package graphlod;
+
+import graphlod.dataset.UriValidator;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UriValidatorTest {
+
+    private static final List<String> CORPUS = Arrays.asList(
+            "http://dbpedia.org/resource/Berlin",
+            "https://example.org/a/b?c=d#e",
+            "HTTP://EXAMPLE.ORG/",
+            "HtTpS://example.org",
+            "  http://example.org/trimmed \t",
+            "url:http://example.org/",
+            "URL:https://example.org/",
+            "url:",
+            "url:#ref",
+            "#ref",
+            "",
+            " ",
+            "no scheme",
+            "/relative/path",
+            "a/b:c",
+            "http:",
+            "http:/",
+            "http://",
+            "http:///",
+            "http:////unc/name",
+            "http:relative",
+            "http:?query",
+            "http:#",
+            "http://host:80/",
+            "http://host:/",
+            "http://host:0",
+            "http://host:-1/",
+            "http://host:-2/",
+            "http://host:+8080/",
+            "http://host:+/",
+            "http://host:-/",
+            "http://host:80a/",
+            "http://host: 80/",
+            "http://host:2147483647/",
+            "http://host:2147483648/",
+            "http://host:99999999999/",
+            "http://host:-2147483648/",
+            "http://host:\u0661\u0662/",
+            "http://host:80?x",
+            "http://host:x?y",
+            "http://host#:x",
+            "http://host?:x",
+            "http://host/:x",
+            "http://user@host:80/",
+            "http://user:pw@host/",
+            "http://user:pw@host:x/",
+            "http://a@b@host:x/",
+            "http://@:80",
+            "http://host:80:90/",
+            "http://[::1]/",
+            "http://[::1]:8080/",
+            "http://[::1]x/",
+            "http://[::1/",
+            "http://[1]/",
+            "http://[fe80::1%eth0]/",
+            "http://[::ffff:127.0.0.1]/",
+            "http://[::ffff:1.2.3]/",
+            "http://[12345::]/",
+            "http://ho\tst/",
+            "http://ho\u007fst/",
+            "http://ho\u2047st/",
+            "http://ho\uff0fst/",
+            "http://ho\uff10st/",
+            "http://b\u00fccher.example/",
+            "http://host/\u0001path",
+            "http://user\u0001@host/",
+            "http://host/path?a:b",
+            "http://host/path#a:b?c",
+            "http://host?a#b",
+            "ftp://ftp.example.org/file",
+            "file:///tmp/x",
+            "mailto:someone@example.org",
+            "jar:file:/a.jar!/b",
+            "urn:isbn:0451450523",
+            "unknown:foo",
+            "Note: a literal",
+            "12:30",
+            "-http://example.org",
+            "h+t.t-p://example.org",
+            "ht_tp://example.org",
+            "http\u017f://example.org",
+            "http\u0131://example.org",
+            "HTTPI://example.org",
+            "\u00e4://example.org");
+
+    @Test
+    public void testCorpus() {
+        for (String spec : CORPUS) {
+            assertThat(spec, UriValidator.isValid(spec), is(isValidUrl(spec)));
+        }
+    }
+
+    @Test
+    public void testRandomMutations() {
+        String alphabet = "hHtTpPsS:/?#@[]-+.%0123456789 \t\u0001\u0661\u2047\u00fcaxfu";
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder spec = new StringBuilder(CORPUS.get(random.nextInt(CORPUS.size())));
+            int mutations = 1 + random.nextInt(4);
+            for (int j = 0; j < mutations; j++) {
+                int position = random.nextInt(spec.length() + 1);
+                char c = alphabet.charAt(random.nextInt(alphabet.length()));
+                if (random.nextBoolean() || position == spec.length()) {
+                    spec.insert(position, c);
+                } else {
+                    spec.setCharAt(position, c);
+                }
+            }
+            String mutated = spec.toString();
+            assertThat(mutated, UriValidator.isValid(mutated), is(isValidUrl(mutated)));
+        }
+    }
+
+    @Test
+    public void testNull() {
+        assertThat(UriValidator.isValid(null), is(isValidUrl(null)));
+    }
+
+    private static boolean isValidUrl(String spec) {
+        try {
+            new URL(spec);
+            return true;
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+}